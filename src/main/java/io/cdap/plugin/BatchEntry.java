@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.base.Strings;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An additional query of a batch unload, with the S3 location it is unloaded to and the token under which that
+ * location is published. Parsed from a JSON array of objects such as
+ * {@code {"query": "select * from sales", "s3DataPath": "s3://bucket/sales/", "outputPathToken": "sales"}}.
+ */
+final class BatchEntry {
+  private static final Gson GSON = new Gson();
+  private static final Type LIST_TYPE = new TypeToken<List<BatchEntry>>() { }.getType();
+
+  private String query;
+  private String s3DataPath;
+  private String outputPathToken;
+
+  BatchEntry(String query, String s3DataPath, String outputPathToken) {
+    this.query = query;
+    this.s3DataPath = s3DataPath;
+    this.outputPathToken = outputPathToken;
+  }
+
+  /**
+   * Parses a JSON array of batch entries.
+   *
+   * @throws IllegalArgumentException if the JSON is malformed or an entry misses one of its fields
+   */
+  static List<BatchEntry> parse(String json) {
+    List<BatchEntry> entries;
+    try {
+      entries = GSON.fromJson(json, LIST_TYPE);
+    } catch (JsonParseException e) {
+      throw new IllegalArgumentException(String.format("Invalid batch '%s'. %s", json, e.getMessage()), e);
+    }
+    if (entries == null) {
+      return Collections.emptyList();
+    }
+    for (int i = 0; i < entries.size(); i++) {
+      BatchEntry entry = entries.get(i);
+      if (entry == null || Strings.isNullOrEmpty(entry.query) || Strings.isNullOrEmpty(entry.s3DataPath) ||
+        Strings.isNullOrEmpty(entry.outputPathToken)) {
+        throw new IllegalArgumentException(String.format(
+          "Batch entry %d must have a 'query', an 's3DataPath' and an 'outputPathToken'.", i));
+      }
+    }
+    return new ArrayList<>(entries);
+  }
+
+  String getQuery() {
+    return query;
+  }
+
+  String getS3DataPath() {
+    return s3DataPath;
+  }
+
+  String getOutputPathToken() {
+    return outputPathToken;
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Idle Redshift connections shared by all {@link ConnectionPool}s of the plugin, so that unloads that run one after the
+ * other in the same worker reuse the connections of the previous ones instead of paying for the TLS and
+ * authentication handshake again. Connections are cached by cluster URL, user, password and query group, since they
+ * are authenticated with the password and run in the query group. At most {@code maxIdle} connections are kept,
+ * connections idle for longer than the idle timeout are closed by a background thread, and connections that were
+ * idle for a while are validated before they are reused.
+ * <p>
+ * The shared cache is only referenced from the plugin classes, so it does not outlive their classloader. There is no
+ * shutdown hook, and the reaper thread stops as soon as the cache is empty and is started again by the next
+ * {@link #put}, so neither keeps the classloader of a finished run alive for longer than the idle timeout.
+ * </p>
+ */
+final class ConnectionCache implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(ConnectionCache.class);
+  private static final int DEFAULT_MAX_IDLE = 32;
+  private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  private static final long DEFAULT_VALIDATION_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+  private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+  private static ConnectionCache instance;
+
+  private final int maxIdle;
+  private final long idleTimeoutMillis;
+  private final long validationIntervalMillis;
+  // idle connections by key, the most recently used first
+  private final Map<String, Deque<IdleConnection>> idle = new HashMap<>();
+  @Nullable
+  private ScheduledExecutorService reaper;
+  private int idleCount;
+  private boolean closed;
+
+  ConnectionCache(int maxIdle, long idleTimeoutMillis, long validationIntervalMillis) {
+    this.maxIdle = maxIdle;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.validationIntervalMillis = validationIntervalMillis;
+  }
+
+  /**
+   * Returns the cache shared by the plugin classes. Its idle connections are closed by the reaper once they time out.
+   */
+  static synchronized ConnectionCache getInstance() {
+    if (instance == null) {
+      instance = new ConnectionCache(DEFAULT_MAX_IDLE, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_VALIDATION_INTERVAL_MILLIS);
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the key of the connections to the cluster at the given URL, opened with the given credentials and set to
+   * the given query group. The password is only part of the key as a hash.
+   */
+  static String getKey(String url, String user, @Nullable String password, @Nullable String queryGroup) {
+    String passwordHash = Hashing.sha256().hashString(password == null ? "" : password, StandardCharsets.UTF_8)
+      .toString();
+    return url + "|" + user + "|" + passwordHash + "|" + (queryGroup == null ? "" : queryGroup);
+  }
+
+  /**
+   * Takes an idle connection of the given key out of the cache. Connections that were idle for longer than the
+   * validation interval and are no longer valid are closed and skipped.
+   *
+   * @return the connection, or {@code null} if there is no valid idle connection
+   */
+  @Nullable
+  Connection take(String key) {
+    while (true) {
+      IdleConnection idleConnection;
+      synchronized (this) {
+        Deque<IdleConnection> connections = idle.get(key);
+        idleConnection = connections == null ? null : connections.pollFirst();
+        if (idleConnection == null) {
+          return null;
+        }
+        idleCount--;
+      }
+      long idleMillis = System.currentTimeMillis() - idleConnection.idleSince;
+      if (idleMillis < validationIntervalMillis || isValid(idleConnection.connection)) {
+        return idleConnection.connection;
+      }
+      LOG.debug("Closing a cached connection that is no longer valid after being idle for {} ms.", idleMillis);
+      closeQuietly(idleConnection.connection);
+    }
+  }
+
+  /**
+   * Returns a connection to the cache. The connection is closed instead if the cache is full or closed.
+   */
+  void put(String key, Connection connection) {
+    synchronized (this) {
+      if (!closed && idleCount < maxIdle) {
+        Deque<IdleConnection> connections = idle.get(key);
+        if (connections == null) {
+          connections = new ArrayDeque<>();
+          idle.put(key, connections);
+        }
+        connections.addFirst(new IdleConnection(connection, System.currentTimeMillis()));
+        idleCount++;
+        if (reaper == null) {
+          startReaper();
+        }
+        return;
+      }
+    }
+    closeQuietly(connection);
+  }
+
+  private void startReaper() {
+    final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("redshift-connection-reaper").setDaemon(true).build());
+    long interval = Math.max(idleTimeoutMillis / 2, 10L);
+    executor.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        evictIdle();
+        synchronized (ConnectionCache.this) {
+          // a put starts a new reaper once this one is gone, so stopping it under the lock loses no connection
+          if (idleCount == 0 && reaper == executor) {
+            reaper = null;
+            executor.shutdown();
+          }
+        }
+      }
+    }, interval, interval, TimeUnit.MILLISECONDS);
+    reaper = executor;
+  }
+
+  /**
+   * Returns whether the reaper thread is running, which it only does while the cache has idle connections.
+   */
+  synchronized boolean isReaping() {
+    return reaper != null;
+  }
+
+  /**
+   * Returns the number of idle connections in the cache.
+   */
+  synchronized int getIdleCount() {
+    return idleCount;
+  }
+
+  /**
+   * Closes the connections that have been idle for longer than the idle timeout.
+   */
+  void evictIdle() {
+    long now = System.currentTimeMillis();
+    List<Connection> expired = new ArrayList<>();
+    synchronized (this) {
+      Iterator<Deque<IdleConnection>> keys = idle.values().iterator();
+      while (keys.hasNext()) {
+        Deque<IdleConnection> connections = keys.next();
+        // the least recently used connections are at the end
+        while (!connections.isEmpty() && now - connections.peekLast().idleSince >= idleTimeoutMillis) {
+          expired.add(connections.pollLast().connection);
+          idleCount--;
+        }
+        if (connections.isEmpty()) {
+          keys.remove();
+        }
+      }
+    }
+    for (Connection connection : expired) {
+      closeQuietly(connection);
+    }
+    if (!expired.isEmpty()) {
+      LOG.debug("Closed {} connections idle for longer than {} ms.", expired.size(), idleTimeoutMillis);
+    }
+  }
+
+  /**
+   * Closes all idle connections. Connections returned afterwards are closed as well.
+   */
+  @Override
+  public void close() {
+    List<Connection> connections = new ArrayList<>();
+    ScheduledExecutorService executor;
+    synchronized (this) {
+      closed = true;
+      for (Deque<IdleConnection> keyConnections : idle.values()) {
+        for (IdleConnection idleConnection : keyConnections) {
+          connections.add(idleConnection.connection);
+        }
+      }
+      idle.clear();
+      idleCount = 0;
+      executor = reaper;
+      reaper = null;
+    }
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    for (Connection connection : connections) {
+      closeQuietly(connection);
+    }
+  }
+
+  private static boolean isValid(Connection connection) {
+    try {
+      return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  static void closeQuietly(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      // ignore, the connection is discarded anyway
+    }
+  }
+
+  /**
+   * A cached connection and the time it was returned to the cache.
+   */
+  private static final class IdleConnection {
+    private final Connection connection;
+    private final long idleSince;
+
+    IdleConnection(Connection connection, long idleSince) {
+      this.connection = connection;
+      this.idleSince = idleSince;
+    }
+  }
+}
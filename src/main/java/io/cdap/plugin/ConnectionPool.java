@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded pool of Redshift connections. At most {@code maxConnections} connections are handed out at any time,
+ * callers block in {@link #acquire()} until one is released. If a query group is given, the connections of the pool
+ * run their queries in that WLM query group. Released connections are kept in the {@link ConnectionCache} shared by
+ * the plugin classes, so that they are reused by this pool and by the pools of later runs.
+ */
+final class ConnectionPool implements Closeable {
+  private final String url;
+  private final Properties properties;
+  @Nullable
+  private final String queryGroup;
+  private final Semaphore permits;
+  private final ConnectionCache cache;
+  private final String key;
+  private final AtomicInteger cacheHits = new AtomicInteger();
+  private final AtomicInteger cacheMisses = new AtomicInteger();
+  private final AtomicLong acquireNanos = new AtomicLong();
+  private volatile boolean closed;
+
+  ConnectionPool(String url, Properties properties, int maxConnections) {
+    this(url, properties, maxConnections, null);
+  }
+
+  ConnectionPool(String url, Properties properties, int maxConnections, @Nullable String queryGroup) {
+    this(url, properties, maxConnections, queryGroup, ConnectionCache.getInstance());
+  }
+
+  @VisibleForTesting
+  ConnectionPool(String url, Properties properties, int maxConnections, @Nullable String queryGroup,
+                 ConnectionCache cache) {
+    this.url = url;
+    this.properties = properties;
+    this.queryGroup = queryGroup;
+    this.permits = new Semaphore(maxConnections, true);
+    this.cache = cache;
+    this.key = ConnectionCache.getKey(url, properties.getProperty("user"), properties.getProperty("password"),
+                                      queryGroup);
+  }
+
+  /**
+   * Returns a cached connection, or opens a new one if none is cached. Blocks while the pool is exhausted.
+   */
+  Connection acquire() throws SQLException, InterruptedException {
+    permits.acquire();
+    long start = System.nanoTime();
+    try {
+      Connection conn = cache.take(key);
+      if (conn != null) {
+        cacheHits.incrementAndGet();
+      } else {
+        conn = open();
+        cacheMisses.incrementAndGet();
+      }
+      acquireNanos.addAndGet(System.nanoTime() - start);
+      return conn;
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private Connection open() throws SQLException {
+    Connection conn = DriverManager.getConnection(url, properties);
+    if (queryGroup == null) {
+      return conn;
+    }
+    try {
+      Statement stmt = conn.createStatement();
+      try {
+        stmt.execute("set query_group to " + KeyRangePartitioner.quoteLiteral(queryGroup));
+      } finally {
+        stmt.close();
+      }
+      return conn;
+    } catch (SQLException | RuntimeException e) {
+      ConnectionCache.closeQuietly(conn);
+      throw e;
+    }
+  }
+
+  /**
+   * Opens a connection that is not counted against the pool, for monitoring the connections of the pool. The
+   * caller closes it.
+   */
+  Connection connect() throws SQLException {
+    return DriverManager.getConnection(url, properties);
+  }
+
+  /**
+   * Returns a connection obtained from {@link #acquire()} to the pool.
+   */
+  void release(Connection conn) {
+    if (closed) {
+      // released after the run ended, for example by an unload that was interrupted, so it may still be busy
+      ConnectionCache.closeQuietly(conn);
+    } else {
+      cache.put(key, conn);
+    }
+    permits.release();
+  }
+
+  /**
+   * Closes a connection obtained from {@link #acquire()} instead of returning it to the pool, because it is broken.
+   */
+  void discard(Connection conn) {
+    ConnectionCache.closeQuietly(conn);
+    permits.release();
+  }
+
+  /**
+   * Returns the number of connections acquired from the cache.
+   */
+  int getCacheHits() {
+    return cacheHits.get();
+  }
+
+  /**
+   * Returns the number of connections that had to be opened because none was cached.
+   */
+  int getCacheMisses() {
+    return cacheMisses.get();
+  }
+
+  /**
+   * Returns the average time it took to get a connection from the cache or to open one, not counting the time spent
+   * waiting for the pool, in milliseconds.
+   */
+  long getAverageAcquireMillis() {
+    int acquired = cacheHits.get() + cacheMisses.get();
+    return acquired == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(acquireNanos.get() / acquired);
+  }
+
+  /**
+   * Closes the pool. The idle connections stay in the shared cache, connections still in use are closed when they
+   * are released.
+   */
+  @Override
+  public void close() {
+    closed = true;
+  }
+}
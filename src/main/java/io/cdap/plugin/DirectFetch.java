@@ -0,0 +1,254 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.io.Closeables;
+import com.google.common.io.CountingOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+
+/**
+ * Fetches the result of a query over JDBC and writes it as a single delimited file, in the layout UNLOAD would
+ * write it in. Used instead of UNLOAD for small results, where the fixed cost of UNLOAD and its one file per slice
+ * outweigh the transfer through the leader node.
+ */
+final class DirectFetch {
+  static final String FILE_NAME = "0000_part_00";
+  static final String GZIP_EXTENSION = ".gz";
+  private static final Pattern PLAN_ESTIMATE = Pattern.compile("rows=(\\d+) width=(\\d+)");
+  // rows buffered by the driver per round trip are sized to about this many bytes
+  private static final long FETCH_BUFFER_BYTES = 8L * 1024 * 1024;
+  private static final int MIN_FETCH_SIZE = 100;
+  private static final int MAX_FETCH_SIZE = 100000;
+
+  private final boolean csv;
+  private final String delimiter;
+  private final boolean addQuotes;
+  private final boolean escape;
+  private final boolean gzip;
+
+  /**
+   * @param csv whether to write CSV, otherwise delimited text
+   * @param delimiter the field delimiter, or {@code null} for the default of the format
+   * @param addQuotes whether to quote every field of delimited text, like ADDQUOTES
+   * @param escape whether to escape special characters of delimited text, like ESCAPE
+   * @param gzip whether to compress the file with gzip
+   */
+  DirectFetch(boolean csv, @Nullable String delimiter, boolean addQuotes, boolean escape, boolean gzip) {
+    this.csv = csv;
+    this.delimiter = delimiter == null || delimiter.isEmpty() ? (csv ? "," : "|") : delimiter;
+    this.addQuotes = addQuotes;
+    this.escape = escape;
+    this.gzip = gzip;
+  }
+
+  /**
+   * Estimates the result size of the query from the top node of its EXPLAIN plan.
+   *
+   * @return the estimate, or {@code null} if the plan has no estimate
+   */
+  @Nullable
+  static SizeEstimate estimate(Connection conn, String query) throws SQLException {
+    Statement stmt = conn.createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery("explain " + query);
+      while (rs.next()) {
+        Matcher matcher = PLAN_ESTIMATE.matcher(rs.getString(1));
+        if (matcher.find()) {
+          return new SizeEstimate(Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)));
+        }
+      }
+      return null;
+    } finally {
+      stmt.close();
+    }
+  }
+
+  /**
+   * Returns the name of the file written for the given S3 path.
+   */
+  String getPath(String s3Path) {
+    return s3Path + FILE_NAME + (gzip ? GZIP_EXTENSION : "");
+  }
+
+  /**
+   * Runs the query of the task with a cursor and writes its rows to the given path. The statement is watched by the
+   * watchdog, which cancels it when it exceeds the statement timeout or when the pipeline is stopped.
+   */
+  UnloadedFile fetch(Connection conn, UnloadTask task, ObjectStore store, String path, int fetchSize,
+                     UnloadWatchdog watchdog) throws SQLException, IOException {
+    int pid = UnloadWatchdog.getBackendPid(conn);
+    // the driver only fetches in batches, instead of reading the whole result, inside a transaction
+    boolean autoCommit = conn.getAutoCommit();
+    conn.setAutoCommit(false);
+    try {
+      Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      try {
+        stmt.setFetchSize(fetchSize);
+        watchdog.start(task, stmt, pid);
+        try {
+          return write(stmt.executeQuery(task.getQuery()), store, path);
+        } catch (SQLException e) {
+          throw watchdog.getError(task, e);
+        } finally {
+          watchdog.stop(task);
+        }
+      } finally {
+        stmt.close();
+      }
+    } finally {
+      conn.rollback();
+      conn.setAutoCommit(autoCommit);
+    }
+  }
+
+  private UnloadedFile write(ResultSet rs, ObjectStore store, String path) throws SQLException, IOException {
+    long rows = 0L;
+    CountingOutputStream counter = new CountingOutputStream(store.create(path));
+    OutputStream os = gzip ? new GZIPOutputStream(counter) : counter;
+    Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+    boolean written = false;
+    try {
+      ResultSetMetaData metaData = rs.getMetaData();
+      List<String> values = new ArrayList<>(metaData.getColumnCount());
+      while (rs.next()) {
+        values.clear();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+          values.add(getValue(rs, metaData.getColumnType(i), i));
+        }
+        writer.write(formatRow(values));
+        rows++;
+      }
+      writer.close();
+      written = true;
+    } finally {
+      if (!written) {
+        // closing publishes the object, so a partial file has to be removed again
+        Closeables.close(writer, true);
+        deleteQuietly(store, path);
+      }
+    }
+    return new UnloadedFile(path, rows, counter.getCount());
+  }
+
+  private static void deleteQuietly(ObjectStore store, String path) {
+    try {
+      store.delete(path);
+    } catch (IOException e) {
+      // ignore, the failure of the fetch is reported instead
+    }
+  }
+
+  /**
+   * Returns the fetch size that keeps about {@link #FETCH_BUFFER_BYTES} of rows of the given width in memory.
+   */
+  static int getFetchSize(long rowWidth) {
+    long fetchSize = FETCH_BUFFER_BYTES / Math.max(rowWidth, 1L);
+    return (int) Math.max(MIN_FETCH_SIZE, Math.min(MAX_FETCH_SIZE, fetchSize));
+  }
+
+  @Nullable
+  private static String getValue(ResultSet rs, int type, int column) throws SQLException {
+    if (type == Types.BOOLEAN || type == Types.BIT) {
+      // UNLOAD writes booleans as t and f
+      boolean value = rs.getBoolean(column);
+      return rs.wasNull() ? null : (value ? "t" : "f");
+    }
+    return rs.getString(column);
+  }
+
+  /**
+   * Formats a row, including its line terminator. NULL values are written as empty fields, like UNLOAD does by
+   * default.
+   */
+  String formatRow(List<String> values) {
+    StringBuilder line = new StringBuilder();
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        line.append(delimiter);
+      }
+      String value = values.get(i) == null ? "" : values.get(i);
+      line.append(csv ? formatCsvField(value) : formatTextField(value));
+    }
+    return line.append('\n').toString();
+  }
+
+  private String formatCsvField(String value) {
+    if (!value.contains(delimiter) && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  private String formatTextField(String value) {
+    String field = value;
+    if (escape) {
+      StringBuilder escaped = new StringBuilder();
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '\n' || c == '\r' || c == '\\' || c == '"' || c == '\'' || delimiter.indexOf(c) >= 0) {
+          escaped.append('\\');
+        }
+        escaped.append(c);
+      }
+      field = escaped.toString();
+    }
+    return addQuotes ? '"' + field + '"' : field;
+  }
+
+  /**
+   * The estimated number of rows and row width of a query result.
+   */
+  static final class SizeEstimate {
+    private final long rows;
+    private final long width;
+
+    SizeEstimate(long rows, long width) {
+      this.rows = rows;
+      this.width = width;
+    }
+
+    long getRows() {
+      return rows;
+    }
+
+    long getWidth() {
+      return width;
+    }
+
+    long getBytes() {
+      return rows * width;
+    }
+  }
+}
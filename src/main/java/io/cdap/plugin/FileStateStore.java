@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import javax.annotation.Nullable;
+
+/**
+ * {@link StateStore} that keeps each key in a file of a local directory. Only suitable if all runs of the pipeline
+ * share a file system, such as in tests or the sandbox.
+ */
+final class FileStateStore implements StateStore {
+  private final File directory;
+
+  FileStateStore(File directory) {
+    this.directory = directory;
+  }
+
+  @Nullable
+  @Override
+  public String get(String key) throws IOException {
+    File file = new File(directory, key);
+    return file.isFile() ? new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8) : null;
+  }
+
+  @Override
+  public void put(String key, String value) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException(String.format("Failed to create state directory '%s'.", directory));
+    }
+    // write to a temporary file first, so that a failed write never leaves a truncated value behind
+    File tmp = new File(directory, "." + key + ".tmp");
+    Files.write(tmp.toPath(), value.getBytes(StandardCharsets.UTF_8));
+    Files.move(tmp.toPath(), new File(directory, key).toPath(), StandardCopyOption.REPLACE_EXISTING,
+               StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    Files.deleteIfExists(new File(directory, key).toPath());
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.annotation.Nullable;
+
+/**
+ * Helpers for incremental unloads, which only unload the rows whose incremental column is above the high-water mark
+ * reached by the previous run. The column must increase monotonically, rows with a NULL value are never unloaded.
+ */
+final class IncrementalUnload {
+  static final String WATERMARK_KEY = "watermark";
+
+  private IncrementalUnload() {
+  }
+
+  /**
+   * Returns the highest value of the incremental column above the last mark, or {@code null} if there is no new row.
+   */
+  @Nullable
+  static String readHighWaterMark(Connection conn, String query, String column,
+                                  @Nullable String lastMark) throws SQLException {
+    String markQuery = String.format("select max(%s) from (%s) as q", column, query);
+    if (lastMark != null) {
+      markQuery += String.format(" where %s > %s", column, KeyRangePartitioner.quoteLiteral(lastMark));
+    }
+    Statement stmt = conn.createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery(markQuery);
+      return rs.next() ? rs.getString(1) : null;
+    } finally {
+      stmt.close();
+    }
+  }
+
+  /**
+   * Returns the query for the rows above the last mark and up to the new high mark. Bounding the query by the high
+   * mark makes sure rows inserted during the unload are left for the next run instead of being skipped.
+   */
+  static String buildDeltaQuery(String query, String column, @Nullable String lastMark, @Nullable String highMark) {
+    if (highMark == null) {
+      // no new rows, unload an empty result so that the next stages still find the delta
+      return String.format("select * from (%s) as q where 1 = 0", query);
+    }
+    String predicate = String.format("%s <= %s", column, KeyRangePartitioner.quoteLiteral(highMark));
+    if (lastMark != null) {
+      predicate = String.format("%s > %s and %s", column, KeyRangePartitioner.quoteLiteral(lastMark), predicate);
+    }
+    return String.format("select * from (%s) as q where %s", query, predicate);
+  }
+}
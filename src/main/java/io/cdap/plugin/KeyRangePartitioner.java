@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits a query into range-bounded sub-queries on a split column, so that the sub-queries can be unloaded
+ * concurrently. Numeric columns are split into equal-width ranges between MIN and MAX of the column. Other columns
+ * (dates, timestamps, strings) are split on NTILE boundaries, which needs a sort of the column but works for any
+ * orderable type. Rows with a NULL split column are unloaded with the first partition.
+ */
+final class KeyRangePartitioner {
+
+  private KeyRangePartitioner() {
+  }
+
+  /**
+   * Returns at most {@code numPartitions} queries which together return the same rows as {@code query}.
+   */
+  static List<String> split(Connection conn, String query, String column, int numPartitions) throws SQLException {
+    if (numPartitions <= 1) {
+      return Collections.singletonList(query);
+    }
+    Statement stmt = conn.createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery(String.format("select min(%s), max(%s) from (%s) as q", column, column, query));
+      if (!rs.next() || rs.getObject(1) == null) {
+        // empty result, nothing to split
+        return Collections.singletonList(query);
+      }
+      if (isNumeric(rs.getMetaData().getColumnType(1))) {
+        List<String> boundaries = numericBoundaries(rs.getBigDecimal(1), rs.getBigDecimal(2), numPartitions,
+                                                    isIntegral(rs.getMetaData().getColumnType(1)));
+        return buildRangeQueries(query, column, boundaries, false);
+      }
+      rs.close();
+      rs = stmt.executeQuery(String.format(
+        "select max(%1$s) from (select %1$s, ntile(%2$d) over (order by %1$s) as bucket from (%3$s) as q " +
+          "where %1$s is not null) as t group by bucket order by bucket", column, numPartitions, query));
+      Set<String> boundaries = new LinkedHashSet<>();
+      while (rs.next()) {
+        boundaries.add(quoteLiteral(rs.getString(1)));
+      }
+      List<String> upperBounds = new ArrayList<>(boundaries);
+      if (!upperBounds.isEmpty()) {
+        // the last bucket is unbounded
+        upperBounds.remove(upperBounds.size() - 1);
+      }
+      return buildRangeQueries(query, column, upperBounds, true);
+    } finally {
+      stmt.close();
+    }
+  }
+
+  /**
+   * Returns the interior boundaries that split [min, max] into {@code numPartitions} ranges of equal width.
+   */
+  static List<String> numericBoundaries(BigDecimal min, BigDecimal max, int numPartitions, boolean integral) {
+    Set<String> boundaries = new LinkedHashSet<>();
+    BigDecimal width = max.subtract(min);
+    for (int i = 1; i < numPartitions; i++) {
+      BigDecimal offset = width.multiply(BigDecimal.valueOf(i)).divide(BigDecimal.valueOf(numPartitions),
+                                                                       MathContext.DECIMAL64);
+      BigDecimal boundary = min.add(offset);
+      if (integral) {
+        boundary = boundary.setScale(0, RoundingMode.FLOOR);
+      }
+      if (boundary.compareTo(min) > 0 && boundary.compareTo(max) <= 0) {
+        boundaries.add(boundary.stripTrailingZeros().toPlainString());
+      }
+    }
+    return new ArrayList<>(boundaries);
+  }
+
+  /**
+   * Builds one sub-query per range defined by the given ascending boundaries. With {@code upperInclusive} a
+   * boundary belongs to the range below it, otherwise to the range above it.
+   */
+  static List<String> buildRangeQueries(String query, String column, List<String> boundaries,
+                                        boolean upperInclusive) {
+    if (boundaries.isEmpty()) {
+      return Collections.singletonList(query);
+    }
+    String lowerOp = upperInclusive ? ">" : ">=";
+    String upperOp = upperInclusive ? "<=" : "<";
+    List<String> queries = new ArrayList<>();
+    for (int i = 0; i <= boundaries.size(); i++) {
+      String predicate;
+      if (i == 0) {
+        predicate = String.format("%s %s %s or %s is null", column, upperOp, boundaries.get(0), column);
+      } else if (i == boundaries.size()) {
+        predicate = String.format("%s %s %s", column, lowerOp, boundaries.get(i - 1));
+      } else {
+        predicate = String.format("%s %s %s and %s %s %s", column, lowerOp, boundaries.get(i - 1),
+                                  column, upperOp, boundaries.get(i));
+      }
+      queries.add(String.format("select * from (%s) as q where %s", query, predicate));
+    }
+    return queries;
+  }
+
+  static String quoteLiteral(String value) {
+    return "'" + value.replace("'", "''") + "'";
+  }
+
+  private static boolean isNumeric(int sqlType) {
+    switch (sqlType) {
+      case Types.DECIMAL:
+      case Types.NUMERIC:
+      case Types.DOUBLE:
+      case Types.FLOAT:
+      case Types.REAL:
+        return true;
+      default:
+        return isIntegral(sqlType);
+    }
+  }
+
+  private static boolean isIntegral(int sqlType) {
+    return sqlType == Types.BIGINT || sqlType == Types.INTEGER || sqlType == Types.SMALLINT
+      || sqlType == Types.TINYINT;
+  }
+}
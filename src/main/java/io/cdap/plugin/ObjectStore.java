@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.SortedMap;
+
+/**
+ * Access to the objects written by the unload. Paths are full S3 paths of the form {@code s3://bucket/key}.
+ */
+interface ObjectStore {
+
+  /**
+   * Opens the object at the given path for reading.
+   */
+  InputStream open(String path) throws IOException;
+
+  /**
+   * Creates or replaces the object at the given path. The object is visible once the returned stream is closed.
+   */
+  OutputStream create(String path) throws IOException;
+
+  /**
+   * Returns whether an object exists at the given path.
+   */
+  boolean exists(String path) throws IOException;
+
+  /**
+   * Returns the paths and sizes of all objects whose path starts with the given prefix, ordered by path.
+   */
+  SortedMap<String, Long> list(String prefix) throws IOException;
+
+  /**
+   * Deletes the object at the given path, if it exists.
+   */
+  void delete(String path) throws IOException;
+}
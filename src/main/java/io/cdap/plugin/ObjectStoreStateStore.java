@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.io.CharStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+
+/**
+ * {@link StateStore} that keeps each key in an object under an S3 prefix.
+ */
+final class ObjectStoreStateStore implements StateStore {
+  private final ObjectStore store;
+  private final String prefix;
+
+  ObjectStoreStateStore(ObjectStore store, String prefix) {
+    this.store = store;
+    this.prefix = prefix.endsWith("/") ? prefix : prefix + "/";
+  }
+
+  @Nullable
+  @Override
+  public String get(String key) throws IOException {
+    String path = prefix + key;
+    if (!store.exists(path)) {
+      return null;
+    }
+    InputStream is = store.open(path);
+    try {
+      return CharStreams.toString(new InputStreamReader(is, StandardCharsets.UTF_8));
+    } finally {
+      is.close();
+    }
+  }
+
+  @Override
+  public void put(String key, String value) throws IOException {
+    OutputStream os = store.create(prefix + key);
+    try {
+      os.write(value.getBytes(StandardCharsets.UTF_8));
+    } finally {
+      os.close();
+    }
+  }
+
+  @Override
+  public void delete(String key) throws IOException {
+    store.delete(prefix + key);
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Narrows the unloaded query to the columns of a projection and the rows of a filter, so that the same stage can
+ * unload different slices of a table, chosen with runtime arguments. The query is wrapped as a subquery, whose
+ * columns and predicates Redshift pushes down to the scan. Quotes in the projection and the filter are escaped
+ * together with the query when it is embedded in the UNLOAD command.
+ */
+final class QueryRewriter {
+  private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*");
+  private static final Pattern QUOTED_IDENTIFIER = Pattern.compile("\"([^\"]|\"\")+\"");
+
+  private QueryRewriter() {
+  }
+
+  /**
+   * Parses a comma separated list of column names. Names that are not plain identifiers, for example because they
+   * contain spaces, are quoted.
+   *
+   * @return the quoted column names, empty if there is no projection
+   */
+  static List<String> parseProjection(@Nullable String projection) {
+    List<String> columns = new ArrayList<>();
+    if (Strings.isNullOrEmpty(projection)) {
+      return columns;
+    }
+    for (String column : Splitter.on(',').trimResults().omitEmptyStrings().split(projection)) {
+      columns.add(quoteIdentifier(column));
+    }
+    return columns;
+  }
+
+  /**
+   * Returns the column name as an identifier: plain and already quoted identifiers as they are, other names in double
+   * quotes, with double quotes in the name doubled.
+   */
+  static String quoteIdentifier(String column) {
+    if (IDENTIFIER.matcher(column).matches() || QUOTED_IDENTIFIER.matcher(column).matches()) {
+      return column;
+    }
+    return "\"" + column.replace("\"", "\"\"") + "\"";
+  }
+
+  /**
+   * Returns the query restricted to the rows that match the filter, or the query itself if there is no filter.
+   */
+  static String filter(String query, @Nullable String filter) {
+    if (Strings.isNullOrEmpty(filter) || filter.trim().isEmpty()) {
+      return query;
+    }
+    // the line break ends a trailing comment of the filter before the closing parenthesis
+    return String.format("select * from (%s) as f where (%s\n)", query, filter.trim());
+  }
+
+  /**
+   * Returns the query restricted to the given columns, or the query itself if there are none.
+   */
+  static String project(String query, List<String> columns) {
+    if (columns.isEmpty()) {
+      return query;
+    }
+    return String.format("select %s from (%s) as p", Joiner.on(", ").join(columns), query);
+  }
+}
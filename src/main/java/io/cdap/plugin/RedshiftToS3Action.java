@@ -16,22 +16,55 @@
 
 package io.cdap.plugin;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.cdap.cdap.api.annotation.Description;
 import io.cdap.cdap.api.annotation.Macro;
 import io.cdap.cdap.api.annotation.Name;
 import io.cdap.cdap.api.annotation.Plugin;
+import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.plugin.PluginConfig;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
+import io.cdap.cdap.etl.api.StageMetrics;
 import io.cdap.cdap.etl.api.action.Action;
 import io.cdap.cdap.etl.api.action.ActionContext;
+import io.cdap.cdap.etl.api.action.SettableArguments;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TimeZone;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
 /**
@@ -43,14 +76,72 @@ import javax.annotation.Nullable;
   "(Amazon S3).")
 public class RedshiftToS3Action extends Action {
   public static final String PLUGIN_NAME = "RedshiftToS3";
+  private static final Logger LOG = LoggerFactory.getLogger(RedshiftToS3Action.class);
   private static final String JDBC_DRIVER_CLASS = "com.amazon.redshift.jdbc.Driver";
   private static final String COMPRESSION_BZIP2 = "BZIP2";
   private static final String COMPRESSION_GZIP = "GZIP";
   private static final String COMPRESSION_NONE = "NONE";
+  private static final String COMPRESSION_ZSTD = "ZSTD";
+  private static final String FORMAT_TEXT = "TEXT";
+  private static final String FORMAT_CSV = "CSV";
+  private static final String FORMAT_PARQUET = "PARQUET";
+  private static final String FORMAT_ARGUMENT_SUFFIX = ".format";
+  private static final String PARTITIONS_ARGUMENT_SUFFIX = ".partitions";
+  private static final String FILES_ARGUMENT_SUFFIX = ".files";
+  private static final String BYTES_ARGUMENT_SUFFIX = ".bytes";
+  private static final String RECORDS_ARGUMENT_SUFFIX = ".records";
+  private static final String WATERMARK_ARGUMENT_SUFFIX = ".watermark";
+  private static final String DELTA_DIRECTORY_PREFIX = "delta=";
+  private static final String STATE_DIRECTORY = "_state/";
+  private static final String S3_PREFIX = "s3://";
+  // local state locations are only meant for tests and the sandbox, so they have to be given explicitly as file: URIs
+  private static final String FILE_URI_PREFIX = "file:";
+  private static final String FILE_COUNT_ARGUMENT_SUFFIX = ".fileCount";
+  private static final String QUEUE_TIME_ARGUMENT_SUFFIX = ".queueTimeMs";
+  private static final String EXEC_TIME_ARGUMENT_SUFFIX = ".execTimeMs";
+  private static final String SLICE_SKEW_ARGUMENT_SUFFIX = ".sliceSkew";
+  private static final String PARALLEL_ARGUMENT_SUFFIX = ".parallel";
+  private static final String MAX_FILE_SIZE_ARGUMENT_SUFFIX = ".maxFileSizeMb";
+  private static final String COMPRESSION_ARGUMENT_SUFFIX = ".compression";
+  private static final String SCHEMA_ARGUMENT_SUFFIX = ".schema";
+  private static final String DELIMITER_ARGUMENT_SUFFIX = ".delimiter";
+  private static final String QUOTE_ARGUMENT_SUFFIX = ".quote";
+  private static final String ESCAPE_ARGUMENT_SUFFIX = ".escape";
+  private static final String UNLOAD_METRIC_PREFIX = "unload.";
+  private static final String RECORDS_METRIC = "records";
+  private static final String BYTES_METRIC = "bytes";
+  private static final String FILES_METRIC = "files";
+  private static final String QUEUE_TIME_METRIC = "queue.time.ms";
+  private static final String EXEC_TIME_METRIC = "exec.time.ms";
+  private static final String SLICE_SKEW_METRIC = "slice.skew.percent";
+  private static final String CACHE_HITS_METRIC = "cache.hits";
+  private static final String CACHE_MISSES_METRIC = "cache.misses";
+  private static final String CONNECTION_CACHE_HITS_METRIC = "connection.cache.hits";
+  private static final String CONNECTION_CACHE_MISSES_METRIC = "connection.cache.misses";
+  private static final String CONNECTION_ACQUIRE_TIME_METRIC = "connection.acquire.time.ms";
+  private static final String PARTITION_DIRECTORY_PREFIX = "part=";
   private final RedshiftToS3Config config;
+  private ObjectStore objectStore;
+  // whether this action unloads an additional query of the batch of another action
+  private final boolean batchEntry;
+  // directory of the current run of an incremental unload, relative to the S3 data path
+  private String deltaDirectory;
+  // options chosen by auto tuning for the current run, null if not auto tuned
+  private UnloadTuning tuning;
 
   public RedshiftToS3Action(RedshiftToS3Config config) {
+    this(config, null);
+  }
+
+  @VisibleForTesting
+  RedshiftToS3Action(RedshiftToS3Config config, @Nullable ObjectStore objectStore) {
+    this(config, objectStore, false);
+  }
+
+  private RedshiftToS3Action(RedshiftToS3Config config, @Nullable ObjectStore objectStore, boolean batchEntry) {
     this.config = config;
+    this.objectStore = objectStore;
+    this.batchEntry = batchEntry;
   }
 
   @Override
@@ -65,71 +156,788 @@ public class RedshiftToS3Action extends Action {
     config.validate(collector);
     collector.getOrThrowException();
 
-    Connection conn = null;
-    Statement stmt = null;
     try {
-      //Open a connection to redshift
       Class.forName(JDBC_DRIVER_CLASS);
-      Properties props = new Properties();
-      props.setProperty("user", config.redshiftMasterUser);
-      props.setProperty("password", config.redshiftMasterPassword);
-      conn = DriverManager.getConnection(config.redshiftClusterURL, props);
-      stmt = conn.createStatement();
-      String unloadCommand = buildUnloadCommand();
-      stmt.executeUpdate(unloadCommand);
-      String s3Path = config.s3DataPath;
-      if (unloadCommand.contains("credentials")) {
-        s3Path = s3Path.replaceFirst("s3://", "s3n://");
-      } else {
-        s3Path = s3Path.replaceFirst("s3://", "s3a://");
-      }
-      // if path is not a directory, add * to the end of path, to use file path globbing to read files in the next stage
-      if (!s3Path.endsWith("/")) {
-        s3Path += "*";
-      }
-      context.getArguments().set(config.outputPathToken, s3Path);
     } catch (ClassNotFoundException e) {
       throw new IllegalArgumentException(String.format("Unable to load or register Redshift JDBC driver. %s",
                                                        e.getMessage()), e);
+    }
+    Properties props = new Properties();
+    props.setProperty("user", config.redshiftMasterUser);
+    props.setProperty("password", config.redshiftMasterPassword);
+    int maxConcurrency = config.getMaxConcurrency();
+    ConnectionPool pool = new ConnectionPool(config.redshiftClusterURL, props, maxConcurrency,
+                                             Strings.emptyToNull(config.queryGroup));
+    WlmThrottle throttle = new WlmThrottle(maxConcurrency);
+    try {
+      List<BatchEntry> batch = config.getBatch();
+      if (batch.isEmpty()) {
+        unload(context, pool, throttle, config.isPartitioned());
+      } else {
+        unloadBatch(context, pool, throttle, batch);
+      }
     } catch (SQLException e) {
       throw new IllegalArgumentException(String.format("Error unloading the data from Redshift to the S3 bucket. %s",
                                                        e.getMessage()), e);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(String.format("Error reading the unloaded files from the S3 bucket. %s",
+                                                       e.getMessage()), e);
+    } finally {
+      pool.close();
+      emitConnectionMetrics(context.getMetrics(), pool);
+    }
+  }
+
+  private void emitConnectionMetrics(StageMetrics metrics, ConnectionPool pool) {
+    metrics.count(CONNECTION_CACHE_HITS_METRIC, pool.getCacheHits());
+    metrics.count(CONNECTION_CACHE_MISSES_METRIC, pool.getCacheMisses());
+    metrics.gauge(CONNECTION_ACQUIRE_TIME_METRIC, pool.getAverageAcquireMillis());
+    LOG.info("Acquired {} cached and {} new connections, taking {} ms on average.", pool.getCacheHits(),
+              pool.getCacheMisses(), pool.getAverageAcquireMillis());
+  }
+
+  /**
+   * Unloads the query of this action and the queries of the batch concurrently, each with its own action that shares
+   * the connections and the WLM throttle of this one. The first failing unload fails the batch.
+   */
+  private void unloadBatch(final ActionContext context, final ConnectionPool pool, final WlmThrottle throttle,
+                           List<BatchEntry> batch) throws SQLException, IOException, InterruptedException {
+    List<RedshiftToS3Action> actions = new ArrayList<>();
+    actions.add(this);
+    for (BatchEntry entry : batch) {
+      actions.add(new RedshiftToS3Action(config.forBatchEntry(entry), objectStore, true));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(
+      Math.min(config.getMaxConcurrency(), actions.size()),
+      new ThreadFactoryBuilder().setNameFormat("redshift-batch-%d").setDaemon(true).build());
+    try {
+      CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+      for (final RedshiftToS3Action action : actions) {
+        completionService.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            String token = action.config.outputPathToken;
+            try {
+              action.unload(context, pool, throttle, true);
+              return null;
+            } catch (SQLException e) {
+              throw new SQLException(String.format("Unload of '%s' failed. %s", token, e.getMessage()),
+                                     e.getSQLState(), e.getErrorCode(), e);
+            } catch (IOException e) {
+              throw new IOException(String.format("Unload of '%s' failed. %s", token, e.getMessage()), e);
+            }
+          }
+        });
+      }
+      for (int i = 0; i < actions.size(); i++) {
+        try {
+          completionService.take().get();
+        } catch (ExecutionException e) {
+          Throwables.propagateIfPossible(e.getCause(), SQLException.class, IOException.class);
+          throw new SQLException(e.getCause().getMessage(), e.getCause());
+        }
+      }
+    } finally {
+      // interrupts the unloads that are still running, which cancels their statements
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Unloads the query of this action and publishes the result.
+   *
+   * @param checkpointed whether to record the completed tasks in a checkpoint, so that a retried run only executes
+   *                     the tasks that did not complete
+   */
+  private void unload(ActionContext context, ConnectionPool pool, WlmThrottle throttle,
+                      boolean checkpointed) throws SQLException, IOException, InterruptedException {
+    ResultCache cache = null;
+    String fingerprint = null;
+    String tableState = null;
+    if (config.isCacheEnabled()) {
+      cache = new ResultCache(getStateStore(config.cachePath), config.cachePath,
+                              TimeUnit.MINUTES.toMillis(config.getCacheTtlMinutes()), config.getCacheMaxEntries());
+      tableState = readTableState(pool);
+      if (tableState != null) {
+        fingerprint = ResultCache.fingerprint(config.getQuery(), getCacheOptions());
+        if (republishCachedResult(context.getArguments(), cache, fingerprint, tableState)) {
+          context.getMetrics().count(CACHE_HITS_METRIC, 1);
+          return;
+        }
+      }
+      context.getMetrics().count(CACHE_MISSES_METRIC, 1);
+    }
+
+    String query = config.getQuery();
+    StateStore watermarks = null;
+    String lastMark = null;
+    String highMark = null;
+    if (config.isIncremental()) {
+      watermarks = getStateStore(config.getWatermarkPath());
+      lastMark = watermarks.get(IncrementalUnload.WATERMARK_KEY);
+    }
+    // a checkpoint is useless if the output of the completed tasks is deleted when the unload fails
+    UnloadCheckpoint checkpoint = null;
+    if (checkpointed && !config.isCleanupOnFailure()) {
+      // keyed before reading the high mark and tuning, since the key must not depend on the live table
+      checkpoint = UnloadCheckpoint.load(getStateStore(config.getStatePath()), Joiner.on('\n').join(
+        config.getQuery(), Strings.nullToEmpty(config.incrementalColumn), Strings.nullToEmpty(lastMark),
+        config.s3DataPath, getCacheOptions()));
+    }
+    boolean resumed = checkpoint != null && checkpoint.isResumed();
+    if (config.isIncremental()) {
+      if (resumed && checkpoint.getDeltaDirectory() != null) {
+        // the failed run is completed in its own delta, instead of exporting its rows again to a new one
+        highMark = checkpoint.getHighMark();
+        deltaDirectory = checkpoint.getDeltaDirectory();
+      } else {
+        highMark = readHighWaterMark(pool, lastMark);
+        deltaDirectory = DELTA_DIRECTORY_PREFIX + newDeltaTimestamp();
+        if (checkpoint != null) {
+          checkpoint.setDelta(highMark, deltaDirectory);
+        }
+      }
+      query = IncrementalUnload.buildDeltaQuery(query, config.incrementalColumn, lastMark, highMark);
+    }
+    // the filter is applied before splitting, the projection to every split, so that the split column can be dropped
+    query = QueryRewriter.filter(query, config.filter);
+    // the partitions of a resumed unload are completed by UNLOAD, next to the output they already wrote
+    List<UnloadResult> results = config.isDirectFetchEnabled() && !resumed ?
+      fetchDirectly(pool, throttle, project(query)) : null;
+    if (results == null) {
+      results = executeUnload(pool, throttle, query, checkpoint);
+      if (config.isCompactionEnabled()) {
+        results = new UnloadCompactor(getObjectStore(), config.getCompactTargetBytes(), config.getMaxConcurrency())
+          .compact(results);
+      }
+    }
+    UnloadStatistics statistics = UnloadStatistics.of(results);
+    LOG.info("Unloaded the data to '{}': {}", getOutputPath(), statistics);
+    emitMetrics(context.getMetrics(), statistics);
+    Schema schema = readSchema(pool, project(query));
+    Map<String, String> published = publishOutput(context.getArguments(), results, statistics, schema);
+    if (fingerprint != null) {
+      cacheResult(cache, fingerprint, tableState, results, published);
+    }
+    if (highMark != null) {
+      // only advance the mark once the delta is unloaded, so that a failed run is retried from the same mark
+      watermarks.put(IncrementalUnload.WATERMARK_KEY, highMark);
+      setArguments(context.getArguments(), Collections.singletonMap(WATERMARK_ARGUMENT_SUFFIX, highMark));
+    }
+  }
+
+  /**
+   * Runs the UNLOAD commands for the query.
+   *
+   * @param checkpoint the checkpoint that records the completed tasks, so that a retried run only executes the tasks
+   *                   that did not complete, or {@code null} if the unload is not checkpointed
+   */
+  private List<UnloadResult> executeUnload(ConnectionPool pool, WlmThrottle throttle, String query,
+                                           @Nullable UnloadCheckpoint checkpoint)
+    throws SQLException, IOException, InterruptedException {
+    Set<String> existing = config.isCleanupOnFailure() ? getObjectStore().list(getOutputPrefix()).keySet() : null;
+    List<UnloadTask> tasks;
+    if (checkpoint != null && checkpoint.isResumed()) {
+      // the key ranges and tuning of the previous run, read from a table that may have grown since
+      tuning = checkpoint.getTuning();
+      tasks = new ArrayList<>();
+      for (UnloadCheckpoint.Planned planned : checkpoint.getTasks()) {
+        tasks.add(buildUnloadTask(planned.getId(), planned.getQuery(), planned.getS3Path()));
+      }
+      LOG.info("Resuming the unload to '{}', {} of {} partitions completed in a previous run.", getOutputPrefix(),
+               checkpoint.getCompletedCount(), tasks.size());
+    } else {
+      if (config.isAutoTune()) {
+        tuning = tune(pool, project(query));
+      }
+      tasks = planUnloadTasks(pool, query);
+      if (checkpoint != null) {
+        checkpoint.start(tasks, tuning);
+      }
+    }
+    List<UnloadResult> results;
+    boolean unloaded = false;
+    try {
+      results = new UnloadExecutor(pool, getObjectStore(), config.getMaxConcurrency(),
+                                   config.getStatementTimeoutMillis(), config.getMaxRetries(), throttle)
+        .execute(tasks, checkpoint);
+      if (config.isVerify()) {
+        results = verify(pool, throttle, results, checkpoint);
+      }
+      unloaded = true;
+    } finally {
+      if (!unloaded && existing != null) {
+        deletePartialOutput(existing);
+      }
+    }
+    if (checkpoint != null) {
+      checkpoint.clear();
+    }
+    return results;
+  }
+
+  /**
+   * Verifies the output of the unload. The tasks whose output does not match are unloaded once more, replacing their
+   * output, and verified again.
+   *
+   * @return the results, with the results of the tasks that were unloaded again replaced
+   */
+  private List<UnloadResult> verify(ConnectionPool pool, WlmThrottle throttle, List<UnloadResult> results,
+                                    @Nullable UnloadCheckpoint checkpoint)
+    throws SQLException, IOException, InterruptedException {
+    UnloadVerifier verifier = new UnloadVerifier(pool, throttle, getObjectStore(), config.getMaxConcurrency(),
+                                                 config.getStatementTimeoutMillis(), config.manifest);
+    SortedMap<Integer, String> problems = verifier.verify(results);
+    if (problems.isEmpty()) {
+      LOG.info("Verified the output of {} UNLOAD commands to '{}'.", results.size(), getOutputPrefix());
+      return results;
+    }
+
+    List<UnloadTask> retries = new ArrayList<>();
+    for (Map.Entry<Integer, String> problem : problems.entrySet()) {
+      UnloadResult result = results.get(problem.getKey());
+      UnloadTask task = result.getTask();
+      LOG.warn("Output of partition '{}' to '{}' failed verification, unloading it again. {}", task.getId(),
+               task.getS3Path(), problem.getValue());
+      if (checkpoint != null) {
+        checkpoint.reset(task);
+      }
+      // the files of the first attempt are not all rewritten if the second one writes fewer files
+      for (UnloadedFile file : result.getFiles()) {
+        getObjectStore().delete(file.getPath());
+      }
+      retries.add(new UnloadTask(task.getId(), task.getQuery(), task.getS3Path(), task.getRetryCommand()));
+    }
+    List<UnloadResult> retried = new UnloadExecutor(pool, getObjectStore(), config.getMaxConcurrency(),
+                                                    config.getStatementTimeoutMillis(), config.getMaxRetries(),
+                                                    throttle).execute(retries);
+    SortedMap<Integer, String> remaining = verifier.verify(retried);
+    if (!remaining.isEmpty()) {
+      throw new SQLException(String.format("Output of the unload to '%s' failed verification. %s",
+                                           getOutputPrefix(), Joiner.on(' ').join(remaining.values())));
+    }
+
+    List<UnloadResult> verified = new ArrayList<>(results);
+    int i = 0;
+    for (int index : problems.keySet()) {
+      UnloadResult result = retried.get(i++);
+      verified.set(index, result);
+      if (checkpoint != null) {
+        checkpoint.complete(result);
+      }
+    }
+    LOG.info("Verified the output of {} UNLOAD commands to '{}', {} of which were unloaded again.", results.size(),
+             getOutputPrefix(), retries.size());
+    return verified;
+  }
+
+  /**
+   * Chooses PARALLEL, MAXFILESIZE and compression from the estimated result size of the query and the number of
+   * slices of the cluster.
+   */
+  private UnloadTuning tune(ConnectionPool pool, String query) throws SQLException, InterruptedException {
+    Connection conn = pool.acquire();
+    try {
+      DirectFetch.SizeEstimate estimate = DirectFetch.estimate(conn, query);
+      int slices = UnloadTuning.readSliceCount(conn);
+      UnloadTuning tuning = UnloadTuning.choose(estimate == null ? null : estimate.getBytes(), slices,
+                                                config.getTargetFileSizeMb(),
+                                                !FORMAT_PARQUET.equals(config.getFormat()));
+      LOG.info("Auto tuning chose {} for an estimated result of {} bytes on {} slices.", tuning,
+               estimate == null ? "unknown" : estimate.getBytes(), slices);
+      return tuning;
+    } finally {
+      pool.release(conn);
+    }
+  }
+
+  /**
+   * Fetches the result of the query over JDBC and writes it as a single file, if EXPLAIN estimates the result to be
+   * no larger than the direct fetch threshold.
+   *
+   * @return the result of the fetch, or {@code null} if the result has to be unloaded
+   */
+  @Nullable
+  private List<UnloadResult> fetchDirectly(ConnectionPool pool, WlmThrottle throttle,
+                                           String query) throws SQLException, IOException, InterruptedException {
+    Connection conn = pool.acquire();
+    // a fetch that failed or was interrupted may still be running on the connection
+    boolean done = false;
+    try {
+      DirectFetch.SizeEstimate estimate = DirectFetch.estimate(conn, query);
+      if (estimate == null || estimate.getBytes() > config.directFetchThreshold) {
+        LOG.info("Estimated result size of {} bytes is above the direct fetch threshold, unloading the data.",
+                 estimate == null ? "unknown" : estimate.getBytes());
+        done = true;
+        return null;
+      }
+      String s3Path = getUnloadPath();
+      DirectFetch fetch = new DirectFetch(FORMAT_CSV.equals(config.getFormat()), config.delimiter, config.addQuotes,
+                                          config.escape, COMPRESSION_GZIP.equalsIgnoreCase(config.compression));
+      String path = fetch.getPath(s3Path);
+      if (!config.allowOverWrite && getObjectStore().exists(path)) {
+        throw new IOException(String.format("File '%s' already exists. Allow overwrite to replace it.", path));
+      }
+      LOG.info("Estimated result size of {} bytes is below the direct fetch threshold, fetching the data to '{}'.",
+               estimate.getBytes(), path);
+      UnloadTask task = new UnloadTask("0", query, s3Path, "");
+      UnloadedFile file;
+      throttle.acquire(conn);
+      try {
+        file = fetch(pool, conn, fetch, task, path, DirectFetch.getFetchSize(estimate.getWidth()));
+      } finally {
+        throttle.release();
+      }
+      done = true;
+      return Collections.singletonList(new UnloadResult(task, -1L, Collections.singletonList(file)));
+    } finally {
+      if (done) {
+        pool.release(conn);
+      } else {
+        pool.discard(conn);
+      }
+    }
+  }
+
+  /**
+   * Runs a direct fetch on a worker thread, watched by an {@link UnloadWatchdog} like the UNLOAD commands, so that
+   * it is cancelled when it exceeds the statement timeout or when the calling thread is interrupted because the
+   * pipeline is stopped.
+   */
+  private UnloadedFile fetch(ConnectionPool pool, final Connection conn, final DirectFetch fetch,
+                             final UnloadTask task, final String path,
+                             final int fetchSize) throws SQLException, IOException, InterruptedException {
+    ExecutorService executor = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("redshift-fetch-%d").setDaemon(true).build());
+    final UnloadWatchdog watchdog = new UnloadWatchdog(pool, config.getStatementTimeoutMillis(),
+                                                       UnloadWatchdog.PROGRESS_INTERVAL_MILLIS);
+    boolean succeeded = false;
+    try {
+      Future<UnloadedFile> future = executor.submit(new Callable<UnloadedFile>() {
+        @Override
+        public UnloadedFile call() throws Exception {
+          return fetch.fetch(conn, task, getObjectStore(), path, fetchSize, watchdog);
+        }
+      });
+      try {
+        UnloadedFile file = future.get();
+        succeeded = true;
+        return file;
+      } catch (ExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause(), SQLException.class, IOException.class);
+        throw new SQLException(e.getCause().getMessage(), e.getCause());
+      }
+    } finally {
+      if (!succeeded) {
+        // a JDBC call does not return when its thread is interrupted, the statement has to be cancelled
+        watchdog.cancelAll();
+      }
+      executor.shutdownNow();
+      watchdog.close();
+    }
+  }
+
+
+  /**
+   * Reads the schema of the query result. Failures are logged, since the data is unloaded already and the next stage
+   * can still be given a schema by hand.
+   */
+  @Nullable
+  private Schema readSchema(ConnectionPool pool, String query) throws InterruptedException {
+    try {
+      Connection conn = pool.acquire();
+      try {
+        return ResultSchema.read(conn, query, !FORMAT_PARQUET.equals(config.getFormat()));
+      } finally {
+        pool.release(conn);
+      }
+    } catch (SQLException e) {
+      LOG.warn("Failed to read the schema of the query, the schema of '{}' is not published.", getOutputPath(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Publishes the location of the unloaded data, and what is known about it, as runtime arguments for the next
+   * stages.
+   *
+   * @return the published arguments, keyed by their suffix after the output path token
+   */
+  private Map<String, String> publishOutput(SettableArguments arguments, List<UnloadResult> results,
+                                            UnloadStatistics statistics, @Nullable Schema schema) {
+    Map<String, String> published = new LinkedHashMap<>();
+    published.put("", getOutputPath());
+    published.put(FORMAT_ARGUMENT_SUFFIX, config.getFormat().toLowerCase());
+    published.put(RECORDS_ARGUMENT_SUFFIX, String.valueOf(statistics.getRowCount()));
+    published.put(BYTES_ARGUMENT_SUFFIX, String.valueOf(statistics.getSize()));
+    published.put(FILE_COUNT_ARGUMENT_SUFFIX, String.valueOf(statistics.getFileCount()));
+    published.put(QUEUE_TIME_ARGUMENT_SUFFIX, String.valueOf(statistics.getQueueTimeMillis()));
+    published.put(EXEC_TIME_ARGUMENT_SUFFIX, String.valueOf(statistics.getExecTimeMillis()));
+    published.put(SLICE_SKEW_ARGUMENT_SUFFIX, String.format(Locale.ROOT, "%.2f", statistics.getSliceSkew()));
+    if (schema != null) {
+      published.put(SCHEMA_ARGUMENT_SUFFIX, schema.toString());
+    }
+    if (!FORMAT_PARQUET.equals(config.getFormat())) {
+      // how to parse the delimited files, as set by the options of the unload command
+      boolean csv = FORMAT_CSV.equals(config.getFormat());
+      String delimiter = config.delimiter;
+      if (Strings.isNullOrEmpty(delimiter)) {
+        delimiter = csv ? "," : "|";
+      }
+      String escape = "";
+      if (csv) {
+        // CSV escapes quotes by doubling them
+        escape = "\"";
+      } else if (config.escape) {
+        escape = "\\";
+      }
+      published.put(DELIMITER_ARGUMENT_SUFFIX, delimiter);
+      published.put(QUOTE_ARGUMENT_SUFFIX, csv || config.addQuotes ? "\"" : "");
+      published.put(ESCAPE_ARGUMENT_SUFFIX, escape);
+    }
+    if (tuning != null) {
+      published.put(PARALLEL_ARGUMENT_SUFFIX, String.valueOf(tuning.isParallel()));
+      if (tuning.getMaxFileSizeMb() != null) {
+        published.put(MAX_FILE_SIZE_ARGUMENT_SUFFIX, String.valueOf(tuning.getMaxFileSizeMb()));
+      }
+      published.put(COMPRESSION_ARGUMENT_SUFFIX, tuning.getCompression().toLowerCase());
+    }
+    if (!config.getPartitionColumns().isEmpty()) {
+      Set<String> partitions = new TreeSet<>();
+      for (UnloadResult result : results) {
+        partitions.addAll(result.getPartitions());
+      }
+      published.put(PARTITIONS_ARGUMENT_SUFFIX, Joiner.on(',').join(partitions));
+    }
+    if (config.isCompactionEnabled() || config.manifest) {
+      // list the exact files, as recorded in STL_UNLOAD_LOG or written by the compaction, so that the next stage does
+      // not need to list the bucket. The manifest is not read back, the workers may have no access to the bucket.
+      List<String> paths = new ArrayList<>();
+      for (UnloadResult result : results) {
+        for (UnloadedFile file : result.getFiles()) {
+          paths.add(toHadoopPath(file.getPath()));
+        }
+      }
+      published.put(FILES_ARGUMENT_SUFFIX, Joiner.on(',').join(paths));
+    }
+    setArguments(arguments, published);
+    return published;
+  }
+
+  private void emitMetrics(StageMetrics metrics, UnloadStatistics statistics) {
+    // the unloads of a batch report their statistics under their output path token
+    String prefix = batchEntry ? UNLOAD_METRIC_PREFIX + config.outputPathToken + "." : UNLOAD_METRIC_PREFIX;
+    metrics.gauge(prefix + RECORDS_METRIC, statistics.getRowCount());
+    metrics.gauge(prefix + BYTES_METRIC, statistics.getSize());
+    metrics.gauge(prefix + FILES_METRIC, statistics.getFileCount());
+    metrics.gauge(prefix + QUEUE_TIME_METRIC, statistics.getQueueTimeMillis());
+    metrics.gauge(prefix + EXEC_TIME_METRIC, statistics.getExecTimeMillis());
+    // gauges are integral, so the skew is reported as the percentage by which the slowest slice exceeds the average
+    metrics.gauge(prefix + SLICE_SKEW_METRIC, Math.round((statistics.getSliceSkew() - 1) * 100));
+  }
+
+  /**
+   * Deletes the objects written by a failed unload, that is all objects under the output prefix that did not exist
+   * before the unload. Failures are logged, so that they do not hide the failure of the unload.
+   */
+  private void deletePartialOutput(Set<String> existing) {
+    try {
+      int deleted = 0;
+      for (String path : getObjectStore().list(getOutputPrefix()).keySet()) {
+        if (!existing.contains(path)) {
+          getObjectStore().delete(path);
+          deleted++;
+        }
+      }
+      LOG.info("Deleted {} files written by the failed unload to '{}'.", deleted, getOutputPrefix());
+    } catch (IOException e) {
+      LOG.warn("Failed to delete the files written by the failed unload to '{}'.", getOutputPrefix(), e);
+    }
+  }
+
+  private void setArguments(SettableArguments arguments, Map<String, String> published) {
+    // the unloads of a batch publish their arguments concurrently
+    synchronized (arguments) {
+      for (Map.Entry<String, String> argument : published.entrySet()) {
+        arguments.set(config.outputPathToken + argument.getKey(), argument.getValue());
+      }
+    }
+  }
+
+  @Nullable
+  private String readTableState(ConnectionPool pool) throws SQLException, InterruptedException {
+    Connection conn = pool.acquire();
+    try {
+      if (!TableState.canReadAllModifications(conn)) {
+        LOG.info("Not using the result cache, only superusers see the inserts and deletes of all users in " +
+                   "STL_INSERT and STL_DELETE.");
+        return null;
+      }
+      String tableState = TableState.read(conn, config.getQuery());
+      if (tableState == null) {
+        LOG.info("Not using the result cache, the state of the tables read by the query can not be determined.");
+      }
+      return tableState;
     } finally {
-      if (stmt != null) {
-        stmt.close();
+      pool.release(conn);
+    }
+  }
+
+  /**
+   * Returns everything besides the query that determines the unloaded data and its layout.
+   */
+  private String getCacheOptions() {
+    return buildUnloadOptions() + "|split=" + Strings.nullToEmpty(config.splitColumn) + ":" +
+      config.getNumPartitions() + "|auto=" + config.isAutoTune() + ":" + config.getTargetFileSizeMb() + "|compact=" +
+      config.compactTargetSizeMB + "|projection=" + config.getProjection() + "|filter=" +
+      Strings.nullToEmpty(config.filter);
+  }
+
+  /**
+   * Publishes the arguments of a cached result, if there is one for the fingerprint and its data still exists.
+   *
+   * @return whether a cached result was published
+   */
+  private boolean republishCachedResult(SettableArguments arguments, ResultCache cache, String fingerprint,
+                                        String tableState) {
+    long now = System.currentTimeMillis();
+    try {
+      ResultCache.Entry entry = cache.get(fingerprint, tableState, now);
+      if (entry == null) {
+        return false;
+      }
+      if (!entry.isIntact(getObjectStore().list(entry.getS3Prefix()))) {
+        LOG.info("Files of the cached result under '{}' were modified or deleted, unloading the data.",
+                 entry.getS3Prefix());
+        return false;
       }
-      if (conn != null) {
-        conn.close();
+      LOG.info("Tables are unchanged since the result was unloaded to '{}', skipping the unload.",
+               entry.getS3Prefix());
+      setArguments(arguments, entry.getArguments());
+      cache.touch(fingerprint, now);
+      return true;
+    } catch (IOException e) {
+      LOG.warn("Failed to read the result cache, unloading the data.", e);
+      return false;
+    }
+  }
+
+  private void cacheResult(ResultCache cache, String fingerprint, String tableState, List<UnloadResult> results,
+                           Map<String, String> published) {
+    Map<String, Long> files = new HashMap<>();
+    for (UnloadResult result : results) {
+      for (UnloadedFile file : result.getFiles()) {
+        files.put(file.getPath(), file.getSize());
       }
     }
+    long now = System.currentTimeMillis();
+    try {
+      cache.put(fingerprint, new ResultCache.Entry(tableState, getOutputPrefix(), files, published, now), now);
+    } catch (IOException e) {
+      LOG.warn("Failed to add the unloaded result to the result cache.", e);
+    }
+  }
+
+  private ObjectStore getObjectStore() {
+    if (objectStore == null) {
+      objectStore = S3ObjectStore.create(config.redshiftClusterURL, config.accessKey, config.secretAccessKey);
+    }
+    return objectStore;
+  }
+
+  @Nullable
+  private String readHighWaterMark(ConnectionPool pool, @Nullable String lastMark)
+    throws SQLException, InterruptedException {
+    Connection conn = pool.acquire();
+    try {
+      return IncrementalUnload.readHighWaterMark(conn, config.getQuery(), config.incrementalColumn, lastMark);
+    } finally {
+      pool.release(conn);
+    }
+  }
+
+  private static String newDeltaTimestamp() {
+    SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HHmmss'Z'");
+    format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    return format.format(new Date());
+  }
+
+  /**
+   * Returns the state store at the given location, which is either an S3 prefix or a local directory.
+   */
+  private StateStore getStateStore(String location) {
+    if (location.startsWith(S3_PREFIX)) {
+      return new ObjectStoreStateStore(getObjectStore(), location);
+    }
+    if (location.startsWith(FILE_URI_PREFIX)) {
+      return new FileStateStore(new File(URI.create(location)));
+    }
+    throw new IllegalArgumentException(String.format("State location '%s' is neither an S3 prefix nor a file: URI.",
+                                                     location));
+  }
+
+  /**
+   * Splits the unload of the query into one task per key range of the split column, or a single task if the unload
+   * is not partitioned.
+   */
+  private List<UnloadTask> planUnloadTasks(ConnectionPool pool, String query)
+    throws SQLException, InterruptedException {
+    if (!config.isPartitioned()) {
+      String s3Path = getUnloadPath();
+      return Collections.singletonList(newUnloadTask("0", query, s3Path));
+    }
+    List<String> queries;
+    Connection conn = pool.acquire();
+    try {
+      queries = KeyRangePartitioner.split(conn, query, config.splitColumn, config.getNumPartitions());
+    } finally {
+      pool.release(conn);
+    }
+    List<UnloadTask> tasks = new ArrayList<>();
+    for (int i = 0; i < queries.size(); i++) {
+      String s3Path = getPartitionPath(String.valueOf(i));
+      tasks.add(newUnloadTask(String.valueOf(i), queries.get(i), s3Path));
+    }
+    return tasks;
+  }
+
+  private UnloadTask newUnloadTask(String id, String query, String s3Path) {
+    return buildUnloadTask(id, project(query), s3Path);
+  }
+
+  /**
+   * Builds the task that unloads the query as it is, with the current tuning.
+   */
+  private UnloadTask buildUnloadTask(String id, String query, String s3Path) {
+    return new UnloadTask(id, query, s3Path, buildUnloadCommand(query, s3Path, config.allowOverWrite),
+                          buildUnloadCommand(query, s3Path, true));
+  }
+
+  /**
+   * Narrows the query to the columns of the projection, if any.
+   */
+  private String project(String query) {
+    return QueryRewriter.project(query, config.getProjection());
+  }
+
+  /**
+   * Returns the S3 prefix of all objects written by the unload.
+   */
+  private String getOutputPrefix() {
+    return config.isPartitioned() ? getDirectoryPath() : getUnloadPath();
+  }
+
+  /**
+   * Returns the S3 path a single unload is written to. Hive style partitioned output and incremental deltas are
+   * always written to a directory.
+   */
+
+  private String getUnloadPath() {
+    return config.getPartitionColumns().isEmpty() && deltaDirectory == null ? config.s3DataPath : getDirectoryPath();
+  }
+
+  /**
+   * Returns the S3 prefix a partition of a partitioned unload is written to: {@code <s3DataPath>/part=<i>/}.
+   */
+  private String getPartitionPath(String partition) {
+    return getDirectoryPath() + PARTITION_DIRECTORY_PREFIX + partition + "/";
+  }
+
+  /**
+   * Returns the directory the unload is written to: the S3 data path, or the delta directory under it for
+   * incremental unloads.
+   */
+  private String getDirectoryPath() {
+    String s3Path = config.getDirectoryPath();
+    return deltaDirectory == null ? s3Path : s3Path + deltaDirectory + "/";
+  }
+
+  /**
+   * Returns the path published under the output path token, as read by the next stages. Parquet output is
+   * published as a glob on the '.parquet' extension, so that the next stage reads only the data files.
+   */
+  private String getOutputPath() {
+    String s3Path = config.isPartitioned() ? getPartitionPath("*") : getUnloadPath();
+    // match the files in the col=value/ directories of Hive style partitioned output
+    for (int i = 0; i < config.getPartitionColumns().size(); i++) {
+      s3Path += "*/";
+    }
+    s3Path = toHadoopPath(s3Path);
+    // if path is not a directory, add * to the end of path, to use file path globbing to read files in the next stage
+    if (!s3Path.endsWith("/")) {
+      s3Path += "*";
+    }
+    if (FORMAT_PARQUET.equals(config.getFormat())) {
+      s3Path += s3Path.endsWith("*") ? ".parquet" : "*.parquet";
+    }
+    return s3Path;
+  }
+
+  /**
+   * Converts an s3:// path to the scheme of the Hadoop file system the next stages read it with.
+   */
+  private String toHadoopPath(String s3Path) {
+    if (config.hasAccessKeys()) {
+      return s3Path.replaceFirst("s3://", "s3n://");
+    }
+    return s3Path.replaceFirst("s3://", "s3a://");
   }
 
   /**
    * Builds and returns the unload command using the provided properties, to unload data from Redshift to AWS S3.
    *
+   * @param query the select query to unload
+   * @param s3Path the S3 path to unload to
+   * @param allowOverwrite whether the unload may overwrite existing files
    * @return unload command
    */
-  private String buildUnloadCommand() {
+  private String buildUnloadCommand(String query, String s3Path, boolean allowOverwrite) {
     StringBuilder unloadCommand = new StringBuilder();
-    unloadCommand.append("unload ('").append(config.query).append("') to '").append(config.s3DataPath).append("'");
+    unloadCommand.append("unload ('").append(escapeQuery(query)).append("') to '").append(s3Path).append("'");
     // Check authentication is using keys or role.
-    if (!Strings.isNullOrEmpty(config.accessKey) && !Strings.isNullOrEmpty(config.secretAccessKey)) {
+    if (config.hasAccessKeys()) {
       unloadCommand.append(" ");
       unloadCommand.append("credentials 'aws_access_key_id=").append(config.accessKey).append(";aws_secret_access_key=")
         .append(config.secretAccessKey).append("'");
     } else {
       unloadCommand.append(" iam_role '").append(config.iamRole).append("'");
     }
+    unloadCommand.append(buildUnloadOptions(allowOverwrite));
+    unloadCommand.append(";");
+    return unloadCommand.toString();
+  }
+
+  /**
+   * Builds the options of the unload command, that is everything that follows the query, target and credentials.
+   */
+  private String buildUnloadOptions() {
+    return buildUnloadOptions(config.allowOverWrite);
+  }
+
+  private String buildUnloadOptions(boolean allowOverwrite) {
+    StringBuilder unloadCommand = new StringBuilder();
+    String format = config.getFormat();
+    if (!FORMAT_TEXT.equals(format)) {
+      unloadCommand.append(" format as ").append(format.toLowerCase());
+    }
+    List<String> partitionColumns = config.getPartitionColumns();
+    if (!partitionColumns.isEmpty()) {
+      // INCLUDE keeps the partition columns in the files, which the published schema lists
+      unloadCommand.append(" partition by (").append(Joiner.on(", ").join(partitionColumns)).append(") include");
+    }
     if (!Strings.isNullOrEmpty(config.delimiter)) {
       unloadCommand.append(" delimiter '").append(config.delimiter).append("'");
     }
-    if (!config.parallel) {
+    if (tuning != null ? !tuning.isParallel() : !config.parallel) {
       unloadCommand.append(" parallel off");
     }
+    if (tuning != null && tuning.getMaxFileSizeMb() != null) {
+      unloadCommand.append(" maxfilesize ").append(tuning.getMaxFileSizeMb()).append(" mb");
+    }
     if (config.manifest) {
-      unloadCommand.append(" manifest");
+      unloadCommand.append(" manifest verbose");
     }
-    if (config.allowOverWrite) {
+    if (allowOverwrite) {
       unloadCommand.append(" allowoverwrite");
     }
     if (config.addQuotes) {
@@ -138,25 +946,52 @@ public class RedshiftToS3Action extends Action {
     if (config.escape) {
       unloadCommand.append(" escape");
     }
-    String compression = config.compression;
+    String compression = tuning != null ? tuning.getCompression() : config.compression;
     if (!Strings.isNullOrEmpty(compression)) {
-      switch (config.compression.toUpperCase()) {
+      switch (compression.toUpperCase()) {
         case COMPRESSION_BZIP2:
           unloadCommand.append(" ").append(COMPRESSION_BZIP2);
           break;
         case COMPRESSION_GZIP:
           unloadCommand.append(" ").append(COMPRESSION_GZIP);
           break;
+        case COMPRESSION_ZSTD:
+          unloadCommand.append(" ").append(COMPRESSION_ZSTD);
+          break;
         case COMPRESSION_NONE:
           break;
         default:
-          throw new IllegalArgumentException("Unsupported compression type " + config.compression);
+          throw new IllegalArgumentException("Unsupported compression type " + compression);
       }
     }
-    unloadCommand.append(";");
     return unloadCommand.toString();
   }
 
+  /**
+   * Escapes the query so that it can be embedded in the quoted string literal of the UNLOAD command.
+   */
+  static String escapeQuery(String query) {
+    return query.replace("\\", "\\\\").replace("'", "''");
+  }
+
+  /**
+   * Turns a query written for the string literal of the UNLOAD command, with doubled or backslash escaped quotes and
+   * doubled backslashes, back into plain SQL.
+   */
+  static String unescapeQuery(String query) {
+    StringBuilder unescaped = new StringBuilder(query.length());
+    for (int i = 0; i < query.length(); i++) {
+      char c = query.charAt(i);
+      char next = i + 1 < query.length() ? query.charAt(i + 1) : 0;
+      if ((c == '\'' && next == '\'') || (c == '\\' && (next == '\'' || next == '\\'))) {
+        i++;
+        c = next;
+      }
+      unescaped.append(c);
+    }
+    return unescaped.toString();
+  }
+
   /**
    * Config class that contains all properties required for running the unload command.
    */
@@ -165,6 +1000,27 @@ public class RedshiftToS3Action extends Action {
     private static final String ACCESS_KEY = "accessKey";
     private static final String SECRET_ACCESS_KEY = "secretAccessKey";
     private static final String QUERY = "query";
+    private static final String SPLIT_COLUMN = "splitColumn";
+    private static final String NUM_PARTITIONS = "numPartitions";
+    private static final String MAX_CONCURRENCY = "maxConcurrency";
+    private static final String FORMAT = "format";
+    private static final String CACHE_PATH = "cachePath";
+    private static final String WATERMARK_PATH = "watermarkPath";
+    private static final String CACHE_TTL_MINUTES = "cacheTtlMinutes";
+    private static final String CACHE_MAX_ENTRIES = "cacheMaxEntries";
+    private static final String STATEMENT_TIMEOUT_MINUTES = "statementTimeoutMinutes";
+    private static final String BATCH = "batch";
+    private static final String MAX_RETRIES = "maxRetries";
+    private static final String DIRECT_FETCH_THRESHOLD = "directFetchThreshold";
+    private static final String TARGET_FILE_SIZE_MB = "targetFileSizeMB";
+    private static final String COMPACT_TARGET_SIZE_MB = "compactTargetSizeMB";
+    private static final String PARTITION_BY = "partitionBy";
+    private static final String PROJECTION = "projection";
+    private static final String FILTER = "filter";
+    private static final String DELIMITER = "delimiter";
+    private static final String COMPRESSION = "compression";
+    private static final String ADD_QUOTES = "addQuotes";
+    private static final String ESCAPE = "escape";
 
     @Macro
     @Nullable
@@ -189,7 +1045,15 @@ public class RedshiftToS3Action extends Action {
     private String query;
 
     @Macro
-    @Description("The full path, including bucket name, to the location on Amazon S3 where Amazon Redshift will " +
+    @Nullable
+    @Description("Boolean value to determine if the query is written as plain SQL, whose quotes and backslashes are " +
+      "escaped when it is embedded in the UNLOAD command. When false, the query is embedded as it is, so literals " +
+      "have to be written with doubled quotes, such as ''NV'', as in earlier versions. Default is false. " +
+      "(Macro-enabled)")
+    private Boolean escapeQuery;
+
+    @Macro
+    @Description("The full path, including bucket name, to the location on Amazon S3 where Amazon Redshift will " +
       "write the output file objects, including the manifest file if MANIFEST is specified. Should be of the format: " +
       "s3://object-path/name-prefix.")
     private String s3DataPath;
@@ -205,7 +1069,8 @@ public class RedshiftToS3Action extends Action {
     @Macro
     @Nullable
     @Description("Boolean value to determine if manifest file is to be created during unload. The manifest file " +
-      "explicitly lists the data files that are created by the UNLOAD process. Default is false.")
+      "explicitly lists the data files that are created by the UNLOAD process. When enabled, the data files, as " +
+      "recorded in STL_UNLOAD_LOG, are published under '<outputPathToken>.files'. Default is false.")
     private Boolean manifest;
 
     @Nullable
@@ -221,8 +1086,8 @@ public class RedshiftToS3Action extends Action {
 
     @Nullable
     @Macro
-    @Description("Unloads data into one or more compressed files. Can be one of the following: NONE or BZIP2 or GZIP." +
-      "Default is NONE.")
+    @Description("Unloads data into one or more compressed files. Can be one of the following: NONE or BZIP2 or GZIP " +
+      "or ZSTD. ZSTD files can only be read with the native Hadoop codec. Default is NONE.")
     private String compression;
 
     @Macro
@@ -258,6 +1123,163 @@ public class RedshiftToS3Action extends Action {
     @Description("Master password for Redshift cluster to connect to. (Macro-enabled)")
     private String redshiftMasterPassword;
 
+    @Macro
+    @Nullable
+    @Description("Format of the unloaded files. Can be one of the following: TEXT, CSV or PARQUET. PARQUET writes " +
+      "columnar, Snappy compressed files and can not be combined with delimiter, compression, add quotes or escape. " +
+      "CSV can not be combined with add quotes or escape. Default is TEXT. (Macro-enabled)")
+    private String format;
+
+    @Macro
+    @Nullable
+    @Description("Comma separated list of columns to partition the unloaded files by. The files are written to Hive " +
+      "style 'col=value/' directories under the S3 data path, and the written partitions are published as a comma " +
+      "separated list under '<outputPathToken>.partitions'. The partition columns are also written to the files. " +
+      "(Macro-enabled)")
+    private String partitionBy;
+
+    @Macro
+    @Nullable
+    @Description("Monotonically increasing column used for incremental unloads. When set, each run only unloads " +
+      "the rows above the high-water mark reached by the previous run, to a new 'delta=<timestamp>/' directory under " +
+      "the S3 data path. (Macro-enabled)")
+    private String incrementalColumn;
+
+    @Macro
+    @Nullable
+    @Description("Location of the high-water mark of incremental unloads. An S3 prefix (s3://...), or for tests " +
+      "and the sandbox a local directory given as a file: URI. Defaults to '_state/' under the S3 data path. " +
+      "(Macro-enabled)")
+    private String watermarkPath;
+
+    @Macro
+    @Nullable
+    @Description("Location of the result cache, an S3 prefix (s3://...), or for tests and the sandbox a local " +
+      "directory given as a file: URI. When set, the result of " +
+      "a previous unload of the same query with the same options is reused, as long as the tables the query reads " +
+      "from were not modified and the unloaded data still exists. Can be shared by several stages. Can not be used " +
+      "with incremental unloads. (Macro-enabled)")
+    private String cachePath;
+
+    @Macro
+    @Nullable
+    @Description("Number of minutes after which a cached result is no longer reused. Default is 1440. " +
+      "(Macro-enabled)")
+    private Integer cacheTtlMinutes;
+
+    @Macro
+    @Nullable
+    @Description("Maximum number of results kept in the result cache. The least recently used results are evicted " +
+      "first. Default is 100. (Macro-enabled)")
+    private Integer cacheMaxEntries;
+
+    @Macro
+    @Nullable
+    @Description("Column used to split the query into key ranges that are unloaded concurrently, each to its own " +
+      "'part=<n>/' directory under the S3 data path. Numeric columns are split into equal-width ranges between the " +
+      "minimum and maximum value, other columns on NTILE boundaries. Required if the number of partitions is greater " +
+      "than 1. (Macro-enabled)")
+    private String splitColumn;
+
+    @Macro
+    @Nullable
+    @Description("Number of key ranges to split the query into. Default is 1, which unloads the query with a single " +
+      "UNLOAD command. (Macro-enabled)")
+    private Integer numPartitions;
+
+    @Macro
+    @Nullable
+    @Description("Maximum number of UNLOAD commands, and Redshift connections, that are run concurrently. " +
+      "Default is 4. (Macro-enabled)")
+    private Integer maxConcurrency;
+
+    @Macro
+    @Nullable
+    @Description("Number of minutes after which an UNLOAD command or a direct fetch is cancelled. Default is no " +
+      "timeout. (Macro-enabled)")
+    private Integer statementTimeoutMinutes;
+
+    @Macro
+    @Nullable
+    @Description("Boolean value to determine if the files written by a failed, timed out or stopped unload are " +
+      "deleted. Only files that did not exist before the unload are deleted. Requires permission to list and " +
+      "delete objects under the S3 data path. Default is false. (Macro-enabled)")
+    private Boolean cleanupOnFailure;
+
+    @Macro
+    @Nullable
+    @Description("Boolean value to determine if the output of the unload is verified. The sizes of the unloaded " +
+      "files are compared with the objects in S3 and the unloaded rows with a count of the query. Output that does " +
+      "not match is unloaded once more, and the unload fails if it still does not match. Default is false. " +
+      "(Macro-enabled)")
+    private Boolean verify;
+
+    @Macro
+    @Nullable
+    @Description("Boolean value to determine if PARALLEL, MAXFILESIZE and compression are chosen automatically from " +
+      "the EXPLAIN estimate of the result size and the number of slices of the cluster. When true, the Parallel " +
+      "and Compression settings are ignored. Large results are compressed with the splittable BZIP2. Default is " +
+      "false. (Macro-enabled)")
+    private Boolean autoTune;
+
+    @Macro
+    @Nullable
+    @Description("File size in megabytes that auto tuning aligns the unloaded files with, usually the split size of " +
+      "the stage that reads them. Between 5 and 6200. Default is 128. (Macro-enabled)")
+    private Integer targetFileSizeMB;
+
+    @Macro
+    @Nullable
+    @Description("Estimated result size in bytes up to which the result is fetched over JDBC and written as a " +
+      "single file, instead of being unloaded. The size is estimated with EXPLAIN. Only for TEXT and CSV output " +
+      "without compression or with GZIP, without manifest and partitioning. Default is to always unload. " +
+      "(Macro-enabled)")
+    private Long directFetchThreshold;
+
+    @Macro
+    @Nullable
+    @Description("Size in megabytes of the files that the unloaded files are compacted into after the unload. The " +
+      "small files of each directory are concatenated into files of up to this size, which replace them. Only for " +
+      "TEXT and CSV output without manifest. Default is to not compact. (Macro-enabled)")
+    private Integer compactTargetSizeMB;
+
+    @Macro
+    @Nullable
+    @Description("Comma separated list of the columns of the query result to unload, usually set with a runtime " +
+      "argument, for example ${sales.columns}. Column names that are not plain identifiers are quoted. Must include " +
+      "the columns to partition by. Default is to unload all columns. (Macro-enabled)")
+    private String projection;
+
+    @Macro
+    @Nullable
+    @Description("SQL condition on the columns of the query result that the unloaded rows must match, usually set " +
+      "with a runtime argument, for example sold_at >= '${logicalStartTime(yyyy-MM-dd)}'. String literals are " +
+      "written with single quotes as in plain SQL, they are escaped for the UNLOAD command. Default is to unload all " +
+      "rows. (Macro-enabled)")
+    private String filter;
+
+    @Macro
+    @Nullable
+    @Description("Number of times an UNLOAD command that failed with a transient error, such as a lost connection, " +
+      "insufficient resources or S3 throttling, is retried with an exponential backoff. Default is 3. " +
+      "(Macro-enabled)")
+    private Integer maxRetries;
+
+    @Macro
+    @Nullable
+    @Description("JSON array of additional queries that are unloaded together with the query, each with the S3 data " +
+      "path it is unloaded to and the token its path is published under, for example " +
+      "[{\"query\": \"select * from sales\", \"s3DataPath\": \"s3://bucket/sales/\", " +
+      "\"outputPathToken\": \"sales\"}]. All other options apply to every query. The queries are unloaded " +
+      "concurrently, sharing the connections limited by the max concurrency. (Macro-enabled)")
+    private String batch;
+
+    @Macro
+    @Nullable
+    @Description("WLM query group the UNLOAD commands are run in, to route them to a dedicated WLM queue. " +
+      "(Macro-enabled)")
+    private String queryGroup;
+
     public RedshiftToS3Config() {
       this.outputPathToken = "filePath";
       this.manifest = false;
@@ -266,6 +1288,16 @@ public class RedshiftToS3Action extends Action {
       this.allowOverWrite = false;
       this.addQuotes = false;
       this.escape = false;
+      this.escapeQuery = false;
+      this.numPartitions = 1;
+      this.maxConcurrency = 4;
+      this.format = FORMAT_TEXT;
+      this.cacheTtlMinutes = 1440;
+      this.cacheMaxEntries = 100;
+      this.cleanupOnFailure = false;
+      this.maxRetries = 3;
+      this.autoTune = false;
+      this.targetFileSizeMB = 128;
     }
 
     public RedshiftToS3Config(@Nullable String accessKey, @Nullable String secretAccessKey, @Nullable String iamRole,
@@ -292,6 +1324,165 @@ public class RedshiftToS3Action extends Action {
       this.redshiftMasterPassword = redshiftMasterPassword;
     }
 
+    public static Builder builder() {
+      return new Builder();
+    }
+
+    boolean hasAccessKeys() {
+      return !Strings.isNullOrEmpty(accessKey) && !Strings.isNullOrEmpty(secretAccessKey);
+    }
+
+    int getNumPartitions() {
+      return numPartitions == null ? 1 : numPartitions;
+    }
+
+    int getMaxConcurrency() {
+      return maxConcurrency == null ? 4 : maxConcurrency;
+    }
+
+    long getStatementTimeoutMillis() {
+      return statementTimeoutMinutes == null ? 0L : TimeUnit.MINUTES.toMillis(statementTimeoutMinutes);
+    }
+
+    boolean isAutoTune() {
+      return autoTune != null && autoTune;
+    }
+
+    List<String> getProjection() {
+      return QueryRewriter.parseProjection(projection);
+    }
+
+    int getTargetFileSizeMb() {
+      return targetFileSizeMB == null ? 128 : targetFileSizeMB;
+    }
+
+    boolean isCompactionEnabled() {
+      return compactTargetSizeMB != null;
+    }
+
+    long getCompactTargetBytes() {
+      return compactTargetSizeMB * 1024L * 1024L;
+    }
+
+    boolean isDirectFetchEnabled() {
+      return directFetchThreshold != null && directFetchThreshold > 0;
+    }
+
+    int getMaxRetries() {
+      return maxRetries == null ? 3 : maxRetries;
+    }
+
+    boolean isCleanupOnFailure() {
+      return cleanupOnFailure != null && cleanupOnFailure;
+    }
+
+    boolean isVerify() {
+      return verify != null && verify;
+    }
+
+    boolean isEscapeQuery() {
+      return escapeQuery != null && escapeQuery;
+    }
+
+    /**
+     * Returns the query as plain SQL, as it is run by the statements other than UNLOAD. A query written for the
+     * UNLOAD command, without {@link #isEscapeQuery()}, is unescaped.
+     */
+    String getQuery() {
+      return isEscapeQuery() ? query : unescapeQuery(query);
+    }
+
+    /**
+     * Returns the additional queries of a batch unload, empty if this is not a batch unload.
+     */
+    List<BatchEntry> getBatch() {
+      return Strings.isNullOrEmpty(batch) ? Collections.<BatchEntry>emptyList() : BatchEntry.parse(batch);
+    }
+
+    /**
+     * Returns the config used to unload an additional query of the batch, which has the options of this config. An
+     * explicit watermark path is shared by the batch, so every query keeps its high-water mark in a subdirectory
+     * named after its output path token.
+     */
+    RedshiftToS3Config forBatchEntry(BatchEntry entry) {
+      RedshiftToS3Config entryConfig = new RedshiftToS3Config(
+        accessKey, secretAccessKey, iamRole, entry.getQuery(), entry.getS3DataPath(), entry.getOutputPathToken(),
+        manifest, delimiter, parallel, compression, allowOverWrite, addQuotes, escape, redshiftClusterURL,
+        redshiftMasterUser, redshiftMasterPassword);
+      entryConfig.escapeQuery = escapeQuery;
+      entryConfig.format = format;
+      entryConfig.partitionBy = partitionBy;
+      entryConfig.incrementalColumn = incrementalColumn;
+      if (!Strings.isNullOrEmpty(watermarkPath)) {
+        entryConfig.watermarkPath = (watermarkPath.endsWith("/") ? watermarkPath : watermarkPath + "/") +
+          entry.getOutputPathToken() + "/";
+      }
+      entryConfig.cachePath = cachePath;
+      entryConfig.cacheTtlMinutes = cacheTtlMinutes;
+      entryConfig.cacheMaxEntries = cacheMaxEntries;
+      entryConfig.splitColumn = splitColumn;
+      entryConfig.numPartitions = numPartitions;
+      entryConfig.maxConcurrency = maxConcurrency;
+      entryConfig.statementTimeoutMinutes = statementTimeoutMinutes;
+      entryConfig.cleanupOnFailure = cleanupOnFailure;
+      entryConfig.verify = verify;
+      entryConfig.maxRetries = maxRetries;
+      entryConfig.directFetchThreshold = directFetchThreshold;
+      entryConfig.compactTargetSizeMB = compactTargetSizeMB;
+      entryConfig.projection = projection;
+      entryConfig.filter = filter;
+      entryConfig.autoTune = autoTune;
+      entryConfig.targetFileSizeMB = targetFileSizeMB;
+      entryConfig.queryGroup = queryGroup;
+      return entryConfig;
+    }
+
+    boolean isIncremental() {
+      return !Strings.isNullOrEmpty(incrementalColumn);
+    }
+
+    String getWatermarkPath() {
+      return Strings.isNullOrEmpty(watermarkPath) ? getStatePath() : watermarkPath;
+    }
+
+    /**
+     * Returns the location where the action keeps its state next to the unloaded data, such as checkpoints.
+     */
+    String getStatePath() {
+      return getDirectoryPath() + STATE_DIRECTORY;
+    }
+
+    String getDirectoryPath() {
+      return s3DataPath.endsWith("/") ? s3DataPath : s3DataPath + "/";
+    }
+
+    boolean isCacheEnabled() {
+      return !Strings.isNullOrEmpty(cachePath);
+    }
+
+    int getCacheTtlMinutes() {
+      return cacheTtlMinutes == null ? 1440 : cacheTtlMinutes;
+    }
+
+    int getCacheMaxEntries() {
+      return cacheMaxEntries == null ? 100 : cacheMaxEntries;
+    }
+
+    List<String> getPartitionColumns() {
+      if (Strings.isNullOrEmpty(partitionBy)) {
+        return Collections.emptyList();
+      }
+      return Splitter.on(',').trimResults().omitEmptyStrings().splitToList(partitionBy);
+    }
+
+    String getFormat() {
+      return Strings.isNullOrEmpty(format) ? FORMAT_TEXT : format.toUpperCase();
+    }
+
+    boolean isPartitioned() {
+      return getNumPartitions() > 1;
+    }
+
     /**
      * Validates the config parameters required for unloading the data.
      */
@@ -320,6 +1511,400 @@ public class RedshiftToS3Action extends Action {
           collector.addFailure("specify a valid select statement for query.", null).withConfigProperty(QUERY);
         }
       }
+      if (!this.containsMacro(NUM_PARTITIONS) && numPartitions != null) {
+        if (numPartitions < 1) {
+          collector.addFailure("Number of partitions must be at least 1.", null)
+            .withConfigProperty(NUM_PARTITIONS);
+        } else if (numPartitions > 1 && Strings.isNullOrEmpty(splitColumn) && !this.containsMacro(SPLIT_COLUMN)) {
+          collector.addFailure("Split column must be provided when the number of partitions is greater than 1.",
+                               "Provide the column used to split the query into key ranges.")
+            .withConfigProperty(SPLIT_COLUMN).withConfigProperty(NUM_PARTITIONS);
+        }
+      }
+      if (!this.containsMacro(MAX_CONCURRENCY) && maxConcurrency != null && maxConcurrency < 1) {
+        collector.addFailure("Max concurrency must be at least 1.", null).withConfigProperty(MAX_CONCURRENCY);
+      }
+      if (!this.containsMacro(FORMAT)) {
+        validateFormat(collector);
+      }
+      if (isCacheEnabled() && isIncremental()) {
+        collector.addFailure("The result cache can not be used with incremental unloads.",
+                             "Remove the cache path or the incremental column.")
+          .withConfigProperty(CACHE_PATH);
+      }
+      validateStateLocation(collector, cachePath, CACHE_PATH, "Cache path");
+      validateStateLocation(collector, watermarkPath, WATERMARK_PATH, "Watermark path");
+      if (!this.containsMacro(CACHE_TTL_MINUTES) && cacheTtlMinutes != null && cacheTtlMinutes < 1) {
+        collector.addFailure("Cache TTL must be at least 1 minute.", null).withConfigProperty(CACHE_TTL_MINUTES);
+      }
+      if (!this.containsMacro(BATCH)) {
+        validateBatch(collector);
+      }
+      if (!this.containsMacro(TARGET_FILE_SIZE_MB) && targetFileSizeMB != null &&
+        (targetFileSizeMB < 5 || targetFileSizeMB > 6200)) {
+        collector.addFailure("Target file size must be between 5 and 6200 MB.", null)
+          .withConfigProperty(TARGET_FILE_SIZE_MB);
+      }
+      if (!this.containsMacro(DIRECT_FETCH_THRESHOLD) && isDirectFetchEnabled()) {
+        validateDirectFetch(collector);
+      }
+      if (!this.containsMacro(FILTER) && filter != null && filter.contains(";")) {
+        collector.addFailure("Filter must be a single condition, without ';'.", null).withConfigProperty(FILTER);
+      }
+      if (!this.containsMacro(PROJECTION) && !this.containsMacro(PARTITION_BY)) {
+        validateProjection(collector);
+      }
+      if (!this.containsMacro(COMPACT_TARGET_SIZE_MB) && isCompactionEnabled()) {
+        validateCompaction(collector);
+      }
+      if (!this.containsMacro(MAX_RETRIES) && maxRetries != null && maxRetries < 0) {
+        collector.addFailure("Max retries must not be negative.", null).withConfigProperty(MAX_RETRIES);
+      }
+      if (!this.containsMacro(STATEMENT_TIMEOUT_MINUTES) && statementTimeoutMinutes != null &&
+        statementTimeoutMinutes < 1) {
+        collector.addFailure("Statement timeout must be at least 1 minute.", null)
+          .withConfigProperty(STATEMENT_TIMEOUT_MINUTES);
+      }
+      if (!this.containsMacro(CACHE_MAX_ENTRIES) && cacheMaxEntries != null && cacheMaxEntries < 1) {
+        collector.addFailure("Cache max entries must be at least 1.", null).withConfigProperty(CACHE_MAX_ENTRIES);
+      }
+    }
+
+    /**
+     * Validates that a state location is an S3 prefix or an explicit file: URI. A mistyped scheme would otherwise end
+     * up on the local disk of the container, where the state is lost with the container.
+     */
+    private void validateStateLocation(FailureCollector collector, @Nullable String location, String property,
+                                       String name) {
+      if (this.containsMacro(property) || Strings.isNullOrEmpty(location) || location.startsWith(S3_PREFIX) ||
+        location.startsWith(FILE_URI_PREFIX)) {
+        return;
+      }
+      collector.addFailure(String.format("%s '%s' must be an S3 prefix starting with 's3://'.", name, location),
+                           "Use an s3:// prefix, or a file: URI for a local directory in tests and the sandbox.")
+        .withConfigProperty(property);
+    }
+
+    /**
+     * Validates that direct fetch is only used with output it can write as a single file.
+     */
+    private void validateDirectFetch(FailureCollector collector) {
+      if (!this.containsMacro(FORMAT) && FORMAT_PARQUET.equals(getFormat())) {
+        collector.addFailure("Direct fetch can not write PARQUET.", "Use TEXT or CSV, or remove the direct fetch " +
+          "threshold.").withConfigProperty(DIRECT_FETCH_THRESHOLD).withConfigProperty(FORMAT);
+      }
+      if (!this.containsMacro(COMPRESSION) && compression != null && !COMPRESSION_NONE.equalsIgnoreCase(compression) &&
+        !COMPRESSION_GZIP.equalsIgnoreCase(compression)) {
+        collector.addFailure(String.format("Direct fetch does not support compression '%s'.", compression),
+                             "Use GZIP or NONE, or remove the direct fetch threshold.")
+          .withConfigProperty(DIRECT_FETCH_THRESHOLD).withConfigProperty(COMPRESSION);
+      }
+      if (Boolean.TRUE.equals(manifest) || !Strings.isNullOrEmpty(partitionBy) || getNumPartitions() > 1) {
+        collector.addFailure("Direct fetch can not be used with a manifest or partitioned output.",
+                             "Remove the direct fetch threshold.").withConfigProperty(DIRECT_FETCH_THRESHOLD);
+      }
+    }
+
+    /**
+     * Validates that the projection keeps the columns that the output is partitioned by.
+     */
+    private void validateProjection(FailureCollector collector) {
+      List<String> columns = new ArrayList<>();
+      for (String column : getProjection()) {
+        columns.add(column.toLowerCase());
+      }
+      if (columns.isEmpty()) {
+        return;
+      }
+      for (String partitionColumn : getPartitionColumns()) {
+        if (!columns.contains(QueryRewriter.quoteIdentifier(partitionColumn).toLowerCase())) {
+          collector.addFailure(String.format("Projection must include the partition column '%s'.", partitionColumn),
+                               "Add the column to the projection.").withConfigProperty(PROJECTION);
+        }
+      }
+    }
+
+    /**
+     * Validates that compaction is only used with output that can be concatenated.
+     */
+    private void validateCompaction(FailureCollector collector) {
+      if (compactTargetSizeMB < 1) {
+        collector.addFailure("Compaction target size must be at least 1 MB.", null)
+          .withConfigProperty(COMPACT_TARGET_SIZE_MB);
+      }
+      if (!this.containsMacro(FORMAT) && FORMAT_PARQUET.equals(getFormat())) {
+        collector.addFailure("PARQUET files can not be compacted.", "Use TEXT or CSV, or remove the compaction " +
+          "target size.").withConfigProperty(COMPACT_TARGET_SIZE_MB).withConfigProperty(FORMAT);
+      }
+      if (Boolean.TRUE.equals(manifest)) {
+        collector.addFailure("Compaction can not be used with a manifest, which lists the files before compaction.",
+                             "Remove the manifest or the compaction target size.")
+          .withConfigProperty(COMPACT_TARGET_SIZE_MB);
+      }
+    }
+
+    private void validateBatch(FailureCollector collector) {
+      List<BatchEntry> entries;
+      try {
+        entries = getBatch();
+      } catch (IllegalArgumentException e) {
+        collector.addFailure(e.getMessage(), "Provide a JSON array of objects with a 'query', an 's3DataPath' and " +
+          "an 'outputPathToken'.").withConfigProperty(BATCH);
+        return;
+      }
+      Set<String> tokens = new HashSet<>();
+      tokens.add(outputPathToken);
+      for (BatchEntry entry : entries) {
+        if (!entry.getS3DataPath().startsWith("s3://")) {
+          collector.addFailure(String.format("S3 data path '%s' of the batch must start with 's3://'.",
+                                             entry.getS3DataPath()), null).withConfigProperty(BATCH);
+        }
+        if (!tokens.add(entry.getOutputPathToken())) {
+          collector.addFailure(String.format("Output path token '%s' is used by more than one query.",
+                                             entry.getOutputPathToken()),
+                               "Use a different output path token for every query.").withConfigProperty(BATCH);
+        }
+      }
+    }
+
+    /**
+     * Validates that the text options are only used with formats that support them.
+     */
+    private void validateFormat(FailureCollector collector) {
+      String format = getFormat();
+      if (!FORMAT_TEXT.equals(format) && !FORMAT_CSV.equals(format) && !FORMAT_PARQUET.equals(format)) {
+        collector.addFailure(String.format("Unsupported format '%s'.", this.format),
+                             "Use one of TEXT, CSV or PARQUET.").withConfigProperty(FORMAT);
+        return;
+      }
+      if (FORMAT_TEXT.equals(format)) {
+        return;
+      }
+      if (FORMAT_PARQUET.equals(format)) {
+        if (!Strings.isNullOrEmpty(delimiter)) {
+          collector.addFailure("Delimiter can not be used with the PARQUET format.", "Remove the delimiter.")
+            .withConfigProperty(DELIMITER).withConfigProperty(FORMAT);
+        }
+        if (!Strings.isNullOrEmpty(compression) && !COMPRESSION_NONE.equalsIgnoreCase(compression)) {
+          collector.addFailure("Compression can not be used with the PARQUET format, Parquet files are always " +
+                                 "Snappy compressed.", "Set compression to NONE.")
+            .withConfigProperty(COMPRESSION).withConfigProperty(FORMAT);
+        }
+      }
+      if (Boolean.TRUE.equals(addQuotes)) {
+        collector.addFailure(String.format("Add quotes can not be used with the %s format.", format),
+                             "Set add quotes to false.").withConfigProperty(ADD_QUOTES).withConfigProperty(FORMAT);
+      }
+      if (Boolean.TRUE.equals(escape)) {
+        collector.addFailure(String.format("Escape can not be used with the %s format.", format),
+                             "Set escape to false.").withConfigProperty(ESCAPE).withConfigProperty(FORMAT);
+      }
+    }
+
+    /**
+     * Builder for {@link RedshiftToS3Config}. Properties that are not set keep their default value.
+     */
+    public static class Builder {
+      private final RedshiftToS3Config config = new RedshiftToS3Config();
+
+      public Builder setAccessKey(@Nullable String accessKey) {
+        config.accessKey = accessKey;
+        return this;
+      }
+
+      public Builder setSecretAccessKey(@Nullable String secretAccessKey) {
+        config.secretAccessKey = secretAccessKey;
+        return this;
+      }
+
+      public Builder setIamRole(@Nullable String iamRole) {
+        config.iamRole = iamRole;
+        return this;
+      }
+
+      public Builder setQuery(String query) {
+        config.query = query;
+        return this;
+      }
+
+      public Builder setEscapeQuery(boolean escapeQuery) {
+        config.escapeQuery = escapeQuery;
+        return this;
+      }
+
+      public Builder setS3DataPath(String s3DataPath) {
+        config.s3DataPath = s3DataPath;
+        return this;
+      }
+
+      public Builder setOutputPathToken(String outputPathToken) {
+        config.outputPathToken = outputPathToken;
+        return this;
+      }
+
+      public Builder setManifest(boolean manifest) {
+        config.manifest = manifest;
+        return this;
+      }
+
+      public Builder setDelimiter(@Nullable String delimiter) {
+        config.delimiter = delimiter;
+        return this;
+      }
+
+      public Builder setParallel(boolean parallel) {
+        config.parallel = parallel;
+        return this;
+      }
+
+      public Builder setCompression(String compression) {
+        config.compression = compression;
+        return this;
+      }
+
+      public Builder setAllowOverWrite(boolean allowOverWrite) {
+        config.allowOverWrite = allowOverWrite;
+        return this;
+      }
+
+      public Builder setAddQuotes(boolean addQuotes) {
+        config.addQuotes = addQuotes;
+        return this;
+      }
+
+      public Builder setEscape(boolean escape) {
+        config.escape = escape;
+        return this;
+      }
+
+      public Builder setRedshiftClusterURL(String redshiftClusterURL) {
+        config.redshiftClusterURL = redshiftClusterURL;
+        return this;
+      }
+
+      public Builder setRedshiftMasterUser(String redshiftMasterUser) {
+        config.redshiftMasterUser = redshiftMasterUser;
+        return this;
+      }
+
+      public Builder setRedshiftMasterPassword(String redshiftMasterPassword) {
+        config.redshiftMasterPassword = redshiftMasterPassword;
+        return this;
+      }
+
+      public Builder setFormat(String format) {
+        config.format = format;
+        return this;
+      }
+
+      public Builder setPartitionBy(@Nullable String partitionBy) {
+        config.partitionBy = partitionBy;
+        return this;
+      }
+
+      public Builder setIncrementalColumn(@Nullable String incrementalColumn) {
+        config.incrementalColumn = incrementalColumn;
+        return this;
+      }
+
+      public Builder setWatermarkPath(@Nullable String watermarkPath) {
+        config.watermarkPath = watermarkPath;
+        return this;
+      }
+
+      public Builder setCachePath(@Nullable String cachePath) {
+        config.cachePath = cachePath;
+        return this;
+      }
+
+      public Builder setCacheTtlMinutes(int cacheTtlMinutes) {
+        config.cacheTtlMinutes = cacheTtlMinutes;
+        return this;
+      }
+
+      public Builder setCacheMaxEntries(int cacheMaxEntries) {
+        config.cacheMaxEntries = cacheMaxEntries;
+        return this;
+      }
+
+      public Builder setSplitColumn(@Nullable String splitColumn) {
+        config.splitColumn = splitColumn;
+        return this;
+      }
+
+      public Builder setNumPartitions(int numPartitions) {
+        config.numPartitions = numPartitions;
+        return this;
+      }
+
+      public Builder setMaxConcurrency(int maxConcurrency) {
+        config.maxConcurrency = maxConcurrency;
+        return this;
+      }
+
+      public Builder setStatementTimeoutMinutes(int statementTimeoutMinutes) {
+        config.statementTimeoutMinutes = statementTimeoutMinutes;
+        return this;
+      }
+
+      public Builder setCleanupOnFailure(boolean cleanupOnFailure) {
+        config.cleanupOnFailure = cleanupOnFailure;
+        return this;
+      }
+
+      public Builder setVerify(boolean verify) {
+        config.verify = verify;
+        return this;
+      }
+
+      public Builder setAutoTune(boolean autoTune) {
+        config.autoTune = autoTune;
+        return this;
+      }
+
+      public Builder setTargetFileSizeMB(int targetFileSizeMB) {
+        config.targetFileSizeMB = targetFileSizeMB;
+        return this;
+      }
+
+      public Builder setProjection(@Nullable String projection) {
+        config.projection = projection;
+        return this;
+      }
+
+      public Builder setFilter(@Nullable String filter) {
+        config.filter = filter;
+        return this;
+      }
+
+      public Builder setCompactTargetSizeMB(int compactTargetSizeMB) {
+        config.compactTargetSizeMB = compactTargetSizeMB;
+        return this;
+      }
+
+      public Builder setDirectFetchThreshold(long directFetchThreshold) {
+        config.directFetchThreshold = directFetchThreshold;
+        return this;
+      }
+
+      public Builder setMaxRetries(int maxRetries) {
+        config.maxRetries = maxRetries;
+        return this;
+      }
+
+      public Builder setBatch(@Nullable String batch) {
+        config.batch = batch;
+        return this;
+      }
+
+      public Builder setQueryGroup(@Nullable String queryGroup) {
+        config.queryGroup = queryGroup;
+        return this;
+      }
+
+      public RedshiftToS3Config build() {
+        return config;
+      }
     }
   }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Cache of unload results, keyed by a fingerprint of the query and the unload options. An entry is reused as long
+ * as the tables the query reads from are in the same state as when the entry was created. Entries expire after a
+ * TTL, and the least recently used entries are evicted once the cache holds more than a maximum number of entries.
+ * The cache is kept as a single index in a {@link StateStore}. Updates of the index read it, modify it and write it
+ * back, so the caches of the same location in the JVM, such as those of the unloads of a batch, update it one at a
+ * time; otherwise the last writer would drop the entries added or touched by the others.
+ */
+final class ResultCache {
+  static final String CACHE_KEY = "unload-cache";
+  private static final Gson GSON = new Gson();
+  private static final Type INDEX_TYPE = new TypeToken<Map<String, Entry>>() { }.getType();
+  // one lock object per cache location, released once no cache of the location is left
+  private static final Interner<String> LOCKS = Interners.newWeakInterner();
+
+  private final StateStore store;
+  private final Object lock;
+  private final long ttlMillis;
+  private final int maxEntries;
+
+  /**
+   * @param location the location of the store, which identifies the index that is shared with other caches
+   */
+  ResultCache(StateStore store, String location, long ttlMillis, int maxEntries) {
+    this.store = store;
+    this.lock = LOCKS.intern(location);
+    this.ttlMillis = ttlMillis;
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Returns the fingerprint of the unload of a query with the given options.
+   */
+  static String fingerprint(String query, String options) {
+    return Hashing.sha256().hashString(normalize(query) + '\n' + options, StandardCharsets.UTF_8).toString();
+  }
+
+  /**
+   * Normalizes the query for fingerprinting: lower-cases it and collapses whitespace, except inside string
+   * literals, and drops a trailing semicolon.
+   */
+  static String normalize(String query) {
+    StringBuilder normalized = new StringBuilder();
+    boolean inLiteral = false;
+    boolean pendingSpace = false;
+    for (int i = 0; i < query.length(); i++) {
+      char c = query.charAt(i);
+      if (!inLiteral && Character.isWhitespace(c)) {
+        pendingSpace = normalized.length() > 0;
+        continue;
+      }
+      if (pendingSpace) {
+        normalized.append(' ');
+        pendingSpace = false;
+      }
+      if (c == '\'') {
+        inLiteral = !inLiteral;
+      }
+      normalized.append(inLiteral ? c : Character.toLowerCase(c));
+    }
+    String result = normalized.toString();
+    return result.endsWith(";") ? result.substring(0, result.length() - 1).trim() : result;
+  }
+
+  /**
+   * Returns the entry for the fingerprint if it has not expired and was created for the same table state.
+   */
+  @Nullable
+  Entry get(String fingerprint, String tableState, long now) throws IOException {
+    Entry entry;
+    synchronized (lock) {
+      entry = readIndex().get(fingerprint);
+    }
+    if (entry == null || isExpired(entry, now) || !tableState.equals(entry.tableState)) {
+      return null;
+    }
+    return entry;
+  }
+
+  /**
+   * Marks the entry as used, which keeps it from being evicted in favor of less recently used entries.
+   */
+  void touch(String fingerprint, long now) throws IOException {
+    synchronized (lock) {
+      Map<String, Entry> index = readIndex();
+      Entry entry = index.get(fingerprint);
+      if (entry != null) {
+        entry.lastUsed = now;
+        store.put(CACHE_KEY, GSON.toJson(index, INDEX_TYPE));
+      }
+    }
+  }
+
+  /**
+   * Adds or replaces the entry for the fingerprint, and evicts expired and least recently used entries. Entries of
+   * other fingerprints with the same S3 prefix are evicted too, since their data was overwritten by this one.
+   */
+  void put(String fingerprint, Entry entry, long now) throws IOException {
+    synchronized (lock) {
+      update(fingerprint, entry, now);
+    }
+  }
+
+  private void update(String fingerprint, Entry entry, long now) throws IOException {
+    Map<String, Entry> index = readIndex();
+    index.put(fingerprint, entry);
+    for (Iterator<Map.Entry<String, Entry>> it = index.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<String, Entry> cached = it.next();
+      if (isExpired(cached.getValue(), now) ||
+        (!fingerprint.equals(cached.getKey()) && entry.s3Prefix.equals(cached.getValue().s3Prefix))) {
+        it.remove();
+      }
+    }
+    if (index.size() > maxEntries) {
+      List<Map.Entry<String, Entry>> entries = new ArrayList<>(index.entrySet());
+      Collections.sort(entries, new Comparator<Map.Entry<String, Entry>>() {
+        @Override
+        public int compare(Map.Entry<String, Entry> e1, Map.Entry<String, Entry> e2) {
+          return Long.compare(e1.getValue().lastUsed, e2.getValue().lastUsed);
+        }
+      });
+      for (int i = 0; i < entries.size() - maxEntries; i++) {
+        index.remove(entries.get(i).getKey());
+      }
+    }
+    store.put(CACHE_KEY, GSON.toJson(index, INDEX_TYPE));
+  }
+
+  private boolean isExpired(Entry entry, long now) {
+    return entry.created + ttlMillis < now;
+  }
+
+  private Map<String, Entry> readIndex() throws IOException {
+    String json = store.get(CACHE_KEY);
+    if (json == null) {
+      return new HashMap<>();
+    }
+    try {
+      Map<String, Entry> index = GSON.fromJson(json, INDEX_TYPE);
+      return index == null ? new HashMap<String, Entry>() : index;
+    } catch (JsonParseException e) {
+      // a corrupt index only costs cache misses
+      return new HashMap<>();
+    }
+  }
+
+  /**
+   * A cached unload result: the S3 prefix the data was unloaded to, the paths and sizes of the files it wrote there
+   * and the runtime arguments that were published for it, keyed by their suffix after the output path token.
+   */
+  static final class Entry {
+    private final String tableState;
+    private final String s3Prefix;
+    private final Map<String, Long> files;
+    private final Map<String, String> arguments;
+    private final long created;
+    private long lastUsed;
+
+    Entry(String tableState, String s3Prefix, Map<String, Long> files, Map<String, String> arguments, long created) {
+      this.tableState = tableState;
+      this.s3Prefix = s3Prefix;
+      this.files = files;
+      this.arguments = arguments;
+      this.created = created;
+      this.lastUsed = created;
+    }
+
+    String getS3Prefix() {
+      return s3Prefix;
+    }
+
+    /**
+     * Returns whether the files of the entry are still under its prefix, with the same sizes.
+     *
+     * @param objects the paths and sizes of the objects under the prefix
+     */
+    boolean isIntact(Map<String, Long> objects) {
+      if (files == null || files.isEmpty()) {
+        // entries of earlier versions did not record their files
+        return false;
+      }
+      for (Map.Entry<String, Long> file : files.entrySet()) {
+        if (!file.getValue().equals(objects.get(file.getKey()))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    Map<String, String> getArguments() {
+      return arguments;
+    }
+  }
+}
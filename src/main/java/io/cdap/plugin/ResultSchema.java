@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Maps the result set metadata of the unloaded query to a CDAP {@link Schema}, so that the stage reading the
+ * unloaded files does not have to infer it.
+ */
+final class ResultSchema {
+  static final String RECORD_NAME = "output";
+
+  private ResultSchema() {
+  }
+
+  /**
+   * Reads the schema of the result of the query without running it. The metadata of the prepared query is used if
+   * the driver provides it, otherwise the query is run with {@code LIMIT 0}.
+   *
+   * @param text whether the result is unloaded as TEXT or CSV, which write booleans as {@code t} and {@code f}
+   */
+  static Schema read(Connection conn, String query, boolean text) throws SQLException {
+    PreparedStatement stmt = conn.prepareStatement(query);
+    try {
+      ResultSetMetaData metadata = stmt.getMetaData();
+      if (metadata != null) {
+        return toSchema(metadata, text);
+      }
+    } finally {
+      stmt.close();
+    }
+    Statement limitStmt = conn.createStatement();
+    try {
+      ResultSet rs = limitStmt.executeQuery("select * from (" + query + ") t limit 0");
+      return toSchema(rs.getMetaData(), text);
+    } finally {
+      limitStmt.close();
+    }
+  }
+
+  /**
+   * Returns a record schema with a field for every column. Column names that are not valid field names, such as the
+   * {@code ?column?} of an unnamed expression, are sanitized. Booleans of a text result are strings, since no reader
+   * parses {@code t} and {@code f} as booleans.
+   */
+  static Schema toSchema(ResultSetMetaData metadata, boolean text) throws SQLException {
+    List<Schema.Field> fields = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+    for (int i = 1; i <= metadata.getColumnCount(); i++) {
+      String name = toFieldName(metadata.getColumnLabel(i));
+      // joins can return several columns of the same name
+      String fieldName = name;
+      for (int suffix = 1; !names.add(fieldName); suffix++) {
+        fieldName = name + "_" + suffix;
+      }
+      Schema schema = toSchema(metadata.getColumnType(i), metadata.getPrecision(i), metadata.getScale(i), text);
+      if (metadata.isNullable(i) != ResultSetMetaData.columnNoNulls) {
+        schema = Schema.nullableOf(schema);
+      }
+      fields.add(Schema.Field.of(fieldName, schema));
+    }
+    return Schema.recordOf(RECORD_NAME, fields);
+  }
+
+  private static Schema toSchema(int sqlType, int precision, int scale, boolean text) {
+    switch (sqlType) {
+      case Types.BIT:
+      case Types.BOOLEAN:
+        return Schema.of(text ? Schema.Type.STRING : Schema.Type.BOOLEAN);
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+        return Schema.of(Schema.Type.INT);
+      case Types.BIGINT:
+        return Schema.of(Schema.Type.LONG);
+      case Types.REAL:
+        return Schema.of(Schema.Type.FLOAT);
+      case Types.FLOAT:
+      case Types.DOUBLE:
+        return Schema.of(Schema.Type.DOUBLE);
+      case Types.NUMERIC:
+      case Types.DECIMAL:
+        // a numeric without precision has no fixed scale, which a decimal schema requires
+        return precision > 0 ? Schema.decimalOf(precision, scale) : Schema.of(Schema.Type.STRING);
+      case Types.DATE:
+        return Schema.of(Schema.LogicalType.DATE);
+      case Types.TIME:
+        return Schema.of(Schema.LogicalType.TIME_MICROS);
+      case Types.TIMESTAMP:
+        return Schema.of(Schema.LogicalType.TIMESTAMP_MICROS);
+      default:
+        // character types, and types such as SUPER or GEOMETRY that UNLOAD writes as text
+        return Schema.of(Schema.Type.STRING);
+    }
+  }
+
+  private static String toFieldName(@Nullable String columnName) {
+    String name = columnName == null ? "" : columnName.replaceAll("[^A-Za-z0-9_]", "_");
+    if (name.isEmpty() || Character.isDigit(name.charAt(0))) {
+      name = "_" + name;
+    }
+    return name;
+  }
+}
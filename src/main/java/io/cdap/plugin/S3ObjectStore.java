@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.AmazonS3URI;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * {@link ObjectStore} backed by Amazon S3.
+ */
+final class S3ObjectStore implements ObjectStore {
+  private static final Pattern REGION_PATTERN = Pattern.compile("\\.([a-z]{2}(-gov)?-[a-z]+-\\d)\\.redshift\\.");
+  private static final String DEFAULT_REGION = "us-east-1";
+  private final AmazonS3 s3;
+
+  S3ObjectStore(AmazonS3 s3) {
+    this.s3 = s3;
+  }
+
+  /**
+   * Creates a store for the bucket the cluster unloads to. The bucket must be in the region of the cluster, which is
+   * taken from the cluster URL. Without access keys the default AWS credentials of the worker are used, since an IAM
+   * role can only be assumed by the Redshift cluster.
+   */
+  static S3ObjectStore create(String clusterURL, @Nullable String accessKey, @Nullable String secretAccessKey) {
+    AWSCredentialsProvider credentials;
+    if (accessKey != null && !accessKey.isEmpty() && secretAccessKey != null && !secretAccessKey.isEmpty()) {
+      credentials = new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKey, secretAccessKey));
+    } else {
+      credentials = DefaultAWSCredentialsProviderChain.getInstance();
+    }
+    return new S3ObjectStore(AmazonS3ClientBuilder.standard()
+                               .withCredentials(credentials)
+                               .withRegion(getRegion(clusterURL))
+                               .withForceGlobalBucketAccessEnabled(true)
+                               .build());
+  }
+
+  static String getRegion(String clusterURL) {
+    Matcher matcher = REGION_PATTERN.matcher(clusterURL);
+    return matcher.find() ? matcher.group(1) : DEFAULT_REGION;
+  }
+
+  @Override
+  public InputStream open(String path) throws IOException {
+    AmazonS3URI uri = new AmazonS3URI(path);
+    try {
+      return s3.getObject(uri.getBucket(), uri.getKey()).getObjectContent();
+    } catch (RuntimeException e) {
+      throw new IOException(String.format("Failed to read '%s'. %s", path, e.getMessage()), e);
+    }
+  }
+
+  /**
+   * Returns a stream that spools the object to a local temporary file and uploads it when the stream is closed, so
+   * that objects of unknown length are never buffered in memory.
+   */
+  @Override
+  public OutputStream create(String path) throws IOException {
+    final AmazonS3URI uri = new AmazonS3URI(path);
+    final File file = File.createTempFile("redshift-unload", ".tmp");
+    return new FilterOutputStream(new BufferedOutputStream(new FileOutputStream(file))) {
+      private boolean closed;
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+      }
+
+      @Override
+      public void close() throws IOException {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        try {
+          super.close();
+          s3.putObject(uri.getBucket(), uri.getKey(), file);
+        } catch (RuntimeException e) {
+          throw new IOException(String.format("Failed to write '%s'. %s", uri, e.getMessage()), e);
+        } finally {
+          if (!file.delete()) {
+            file.deleteOnExit();
+          }
+        }
+      }
+    };
+  }
+
+  @Override
+  public boolean exists(String path) throws IOException {
+    AmazonS3URI uri = new AmazonS3URI(path);
+    try {
+      return s3.doesObjectExist(uri.getBucket(), uri.getKey());
+    } catch (RuntimeException e) {
+      throw new IOException(String.format("Failed to check if '%s' exists. %s", path, e.getMessage()), e);
+    }
+  }
+
+  @Override
+  public SortedMap<String, Long> list(String prefix) throws IOException {
+    AmazonS3URI uri = new AmazonS3URI(prefix);
+    SortedMap<String, Long> objects = new TreeMap<>();
+    ListObjectsV2Request request = new ListObjectsV2Request().withBucketName(uri.getBucket())
+      .withPrefix(uri.getKey());
+    try {
+      ListObjectsV2Result result;
+      do {
+        result = s3.listObjectsV2(request);
+        for (S3ObjectSummary summary : result.getObjectSummaries()) {
+          objects.put("s3://" + summary.getBucketName() + "/" + summary.getKey(), summary.getSize());
+        }
+        request.setContinuationToken(result.getNextContinuationToken());
+      } while (result.isTruncated());
+    } catch (RuntimeException e) {
+      throw new IOException(String.format("Failed to list '%s'. %s", prefix, e.getMessage()), e);
+    }
+    return objects;
+  }
+
+  @Override
+  public void delete(String path) throws IOException {
+    AmazonS3URI uri = new AmazonS3URI(path);
+    try {
+      s3.deleteObject(uri.getBucket(), uri.getKey());
+    } catch (RuntimeException e) {
+      throw new IOException(String.format("Failed to delete '%s'. %s", path, e.getMessage()), e);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.io.IOException;
+import javax.annotation.Nullable;
+
+/**
+ * Stores state that has to survive between runs of the action, such as the high-water mark of an incremental
+ * unload.
+ */
+interface StateStore {
+
+  /**
+   * Returns the value stored under the given key, or {@code null} if there is none.
+   */
+  @Nullable
+  String get(String key) throws IOException;
+
+  /**
+   * Stores the value under the given key, replacing any previous value.
+   */
+  void put(String key, String value) throws IOException;
+
+  /**
+   * Removes the value stored under the given key, if there is one.
+   */
+  void delete(String key) throws IOException;
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the modification state of the tables a query reads from Redshift system views. The state of a table is made
+ * of its row count and size from SVV_TABLE_INFO, which include deleted rows that are not vacuumed yet, and the end
+ * time of the last insert and delete from STL_INSERT and STL_DELETE. Two equal states mean that the tables were
+ * not modified in between. Only superusers see the inserts and deletes of all users in these views.
+ */
+final class TableState {
+  private static final String NAME = "(?:\"[^\"]+\"|[a-z_][a-z0-9_$]*)";
+  private static final String TABLE = "(" + NAME + "(?:\\." + NAME + ")?)";
+  private static final Pattern TABLE_PATTERN = Pattern.compile("\\b(?:from|join)\\s+" + TABLE);
+  // the next table of a comma separated FROM list, after the optional alias of the previous one
+  private static final Pattern NEXT_TABLE_PATTERN =
+    Pattern.compile("\\s*(?:as\\s+)?(?:" + NAME + "\\s*)?,\\s*" + TABLE);
+  private static final Pattern CTE_PATTERN = Pattern.compile("(?:\\bwith|,)\\s*([a-z_][a-z0-9_$]*)\\s+as\\s*\\(");
+  private static final String TABLE_INFO_QUERY =
+    "select i.table_id, trim(i.\"schema\"), trim(i.\"table\"), i.tbl_rows, i.size, " +
+      "(select max(endtime) from stl_insert s where s.tbl = i.table_id), " +
+      "(select max(endtime) from stl_delete s where s.tbl = i.table_id) " +
+      "from svv_table_info i where i.\"table\" = ? %s order by 1";
+
+  private TableState() {
+  }
+
+  /**
+   * Returns the names of the tables and views the query reads from, lower-cased and without quotes. This includes
+   * all tables of a comma separated FROM list, such as {@code from sales s, customers c}.
+   */
+  static Set<String> getReferencedTables(String query) {
+    String normalized = query.toLowerCase(Locale.ROOT);
+    Set<String> cteNames = new TreeSet<>();
+    Matcher cteMatcher = CTE_PATTERN.matcher(normalized);
+    while (cteMatcher.find()) {
+      cteNames.add(cteMatcher.group(1));
+    }
+    Set<String> tables = new TreeSet<>();
+    Matcher matcher = TABLE_PATTERN.matcher(normalized);
+    while (matcher.find()) {
+      addTable(tables, cteNames, matcher.group(1));
+      Matcher next = NEXT_TABLE_PATTERN.matcher(normalized);
+      int end = matcher.end();
+      while (next.region(end, normalized.length()).lookingAt()) {
+        addTable(tables, cteNames, next.group(1));
+        end = next.end();
+      }
+    }
+    return tables;
+  }
+
+  private static void addTable(Set<String> tables, Set<String> cteNames, String name) {
+    String table = name.replace("\"", "");
+    if (!cteNames.contains(table)) {
+      tables.add(table);
+    }
+  }
+
+  /**
+   * Returns whether the user of the connection sees the inserts and deletes of all users in STL_INSERT and
+   * STL_DELETE. Other users only see their own, so the modifications made by others would go unnoticed.
+   */
+  static boolean canReadAllModifications(Connection conn) throws SQLException {
+    Statement stmt = conn.createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery("select usesuper from pg_user where usename = current_user");
+      return rs.next() && rs.getBoolean(1);
+    } finally {
+      stmt.close();
+    }
+  }
+
+  /**
+   * Returns the combined state of all tables the query reads from, or {@code null} if the state of some table can
+   * not be determined, for example because it is a view or an empty table.
+   */
+  @Nullable
+  static String read(Connection conn, String query) throws SQLException {
+    Set<String> tables = getReferencedTables(query);
+    if (tables.isEmpty()) {
+      return null;
+    }
+    List<String> states = new ArrayList<>();
+    for (String table : tables) {
+      int idx = table.indexOf('.');
+      // without a schema, the table may exist in several schemas of the search path, so all of them are included
+      PreparedStatement stmt = conn.prepareStatement(
+        String.format(TABLE_INFO_QUERY, idx < 0 ? "" : "and i.\"schema\" = ?"));
+      try {
+        stmt.setString(1, idx < 0 ? table : table.substring(idx + 1));
+        if (idx >= 0) {
+          stmt.setString(2, table.substring(0, idx));
+        }
+        ResultSet rs = stmt.executeQuery();
+        boolean found = false;
+        while (rs.next()) {
+          found = true;
+          states.add(String.format("%s.%s:%d:%d:%s:%s", rs.getString(2), rs.getString(3), rs.getLong(4),
+                                   rs.getLong(5), rs.getTimestamp(6), rs.getTimestamp(7)));
+        }
+        if (!found) {
+          return null;
+        }
+      } finally {
+        stmt.close();
+      }
+    }
+    Collections.sort(states);
+    return states.toString();
+  }
+}
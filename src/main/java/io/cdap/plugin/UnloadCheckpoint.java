@@ -0,0 +1,284 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Records the {@link UnloadTask}s planned for an unload and which of them completed, so that a retried run executes
+ * the same tasks and skips the ones that completed. The checkpoint is keyed by what the plan is made from, the query
+ * and the unload options, rather than by the plan itself: the key ranges of a partitioned unload and the options
+ * chosen by auto tuning are read from the live table, and would change between runs of a table that keeps growing.
+ * <p>
+ * The checkpoint only saves work. Failures to read or write it are logged and the unload goes on without it.
+ */
+final class UnloadCheckpoint {
+  static final String CHECKPOINT_KEY = "checkpoint";
+  private static final Logger LOG = LoggerFactory.getLogger(UnloadCheckpoint.class);
+  private static final Gson GSON = new Gson();
+
+  private final StateStore store;
+  private final State state;
+  private final boolean resumed;
+
+  private UnloadCheckpoint(StateStore store, State state, boolean resumed) {
+    this.store = store;
+    this.state = state;
+    this.resumed = resumed;
+  }
+
+  /**
+   * Loads the checkpoint of the unload planned from the given key. If the stored checkpoint belongs to another
+   * plan, or all of its tasks completed, a new one is started.
+   */
+  static UnloadCheckpoint load(StateStore store, String planKey) {
+    String fingerprint = fingerprint(planKey);
+    try {
+      String json = store.get(CHECKPOINT_KEY);
+      if (json != null) {
+        State state = GSON.fromJson(json, State.class);
+        // a checkpoint with all tasks completed belongs to a run that succeeded but could not remove it
+        if (state != null && fingerprint.equals(state.fingerprint) && state.tasks != null &&
+          state.completed != null && state.completed.size() < state.tasks.size()) {
+          return new UnloadCheckpoint(store, state, true);
+        }
+      }
+    } catch (IOException | JsonParseException e) {
+      // an unreadable checkpoint only costs a full unload
+      LOG.warn("Failed to read the checkpoint, unloading all partitions.", e);
+    }
+    return new UnloadCheckpoint(store, new State(fingerprint), false);
+  }
+
+  static String fingerprint(String planKey) {
+    return Hashing.sha256().hashString(planKey, StandardCharsets.UTF_8).toString();
+  }
+
+  /**
+   * Returns whether this checkpoint continues a previous run. The tasks that did not complete in that run may have
+   * left partial output behind.
+   */
+  boolean isResumed() {
+    return resumed;
+  }
+
+  /**
+   * Returns the tasks planned by the run that started the checkpoint.
+   */
+  synchronized List<Planned> getTasks() {
+    return new ArrayList<>(state.tasks);
+  }
+
+  /**
+   * Returns the options chosen by auto tuning in the run that started the checkpoint, {@code null} if the unload
+   * was not auto tuned.
+   */
+  @Nullable
+  synchronized UnloadTuning getTuning() {
+    return state.tuning;
+  }
+
+  /**
+   * Returns the high-water mark the incremental unload of the run that started the checkpoint unloads up to,
+   * {@code null} if there were no new rows or the unload is not incremental.
+   */
+  @Nullable
+  synchronized String getHighMark() {
+    return state.highMark;
+  }
+
+  /**
+   * Returns the delta directory the incremental unload of the run that started the checkpoint writes to,
+   * {@code null} if the unload is not incremental.
+   */
+  @Nullable
+  synchronized String getDeltaDirectory() {
+    return state.deltaDirectory;
+  }
+
+  /**
+   * Sets the high-water mark and delta directory of an incremental unload, which are recorded with the planned tasks,
+   * so that a retried run completes the same delta.
+   */
+  synchronized void setDelta(@Nullable String highMark, String deltaDirectory) {
+    state.highMark = highMark;
+    state.deltaDirectory = deltaDirectory;
+  }
+
+  /**
+   * Records the planned tasks, which a retried run executes instead of planning again. Their commands are not
+   * recorded, since they contain the credentials of the unload.
+   */
+  synchronized void start(List<UnloadTask> tasks, @Nullable UnloadTuning tuning) {
+    state.tasks = new ArrayList<>();
+    for (UnloadTask task : tasks) {
+      state.tasks.add(new Planned(task));
+    }
+    state.tuning = tuning;
+    save();
+  }
+
+  /**
+   * Returns the paths and sizes of the objects under the path of the task before it was first started, or
+   * {@code null} if it was not started yet.
+   */
+  @Nullable
+  synchronized Map<String, Long> getExistingObjects(UnloadTask task) {
+    return state.existing == null ? null : state.existing.get(task.getId());
+  }
+
+  /**
+   * Records that the task is started, with the objects that were under its path before, so that a retried run can
+   * delete the partial output the task leaves behind if it fails.
+   */
+  synchronized void started(UnloadTask task, Map<String, Long> existing) {
+    if (state.existing == null) {
+      state.existing = new HashMap<>();
+    }
+    state.existing.put(task.getId(), new HashMap<>(existing));
+    save();
+  }
+
+  /**
+   * Returns the result of the task if it completed in a previous run, {@code null} otherwise.
+   */
+  @Nullable
+  synchronized UnloadResult getResult(UnloadTask task) {
+    Completed completed = state.completed.get(task.getId());
+    if (completed == null) {
+      return null;
+    }
+    return new UnloadResult(task, completed.queryId, completed.files, completed.queueTimeMicros,
+                            completed.execTimeMicros, completed.sliceSkew);
+  }
+
+  synchronized int getCompletedCount() {
+    return state.completed.size();
+  }
+
+  /**
+   * Records the task of the result as completed.
+   */
+  synchronized void complete(UnloadResult result) {
+    state.completed.put(result.getTask().getId(), new Completed(result));
+    save();
+  }
+
+  /**
+   * Records the task as not completed, because its output turned out to be incomplete.
+   */
+  synchronized void reset(UnloadTask task) {
+    if (state.completed.remove(task.getId()) != null) {
+      save();
+    }
+  }
+
+  /**
+   * Removes the checkpoint, once the whole unload completed.
+   */
+  synchronized void clear() {
+    try {
+      store.delete(CHECKPOINT_KEY);
+    } catch (IOException e) {
+      LOG.warn("Failed to remove the checkpoint of the completed unload.", e);
+    }
+  }
+
+  private void save() {
+    try {
+      store.put(CHECKPOINT_KEY, GSON.toJson(state));
+    } catch (IOException e) {
+      // a stale checkpoint is safe, a retried run only unloads the tasks it does not record again
+      LOG.warn("Failed to write the checkpoint, a retried run may unload completed partitions again.", e);
+    }
+  }
+
+  private static final class State {
+    private final String fingerprint;
+    private final Map<String, Completed> completed;
+    private List<Planned> tasks;
+    @Nullable
+    private UnloadTuning tuning;
+    @Nullable
+    private String highMark;
+    @Nullable
+    private String deltaDirectory;
+    // the objects under the path of each started task before it was first started, by task id
+    @Nullable
+    private Map<String, Map<String, Long>> existing;
+
+    private State(String fingerprint) {
+      this.fingerprint = fingerprint;
+      this.completed = new HashMap<>();
+    }
+  }
+
+  /**
+   * A planned task: its id, its query and the S3 path it unloads to.
+   */
+  static final class Planned {
+    private final String id;
+    private final String query;
+    private final String s3Path;
+
+    private Planned(UnloadTask task) {
+      this.id = task.getId();
+      this.query = task.getQuery();
+      this.s3Path = task.getS3Path();
+    }
+
+    String getId() {
+      return id;
+    }
+
+    String getQuery() {
+      return query;
+    }
+
+    String getS3Path() {
+      return s3Path;
+    }
+  }
+
+  private static final class Completed {
+    private final long queryId;
+    private final List<UnloadedFile> files;
+    private final long queueTimeMicros;
+    private final long execTimeMicros;
+    private final double sliceSkew;
+
+    private Completed(UnloadResult result) {
+      this.queryId = result.getQueryId();
+      this.files = new ArrayList<>(result.getFiles());
+      this.queueTimeMicros = result.getQueueTimeMicros();
+      this.execTimeMicros = result.getExecTimeMicros();
+      this.sliceSkew = result.getSliceSkew();
+    }
+  }
+}
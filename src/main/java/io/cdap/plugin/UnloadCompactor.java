@@ -0,0 +1,296 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compacts the many small files written by a parallel UNLOAD into fewer files of about a target size. The files of
+ * a directory are packed into bins in path order, and the files of a bin are concatenated into a single
+ * {@code compacted_<n>} file next to them, which then replaces them. Text is concatenated as is, GZIP, BZIP2 and
+ * ZSTD files are concatenated as multi-member streams, which their decoders read as one stream, so no file is ever
+ * decompressed or held in memory. PARQUET files can not be concatenated and are not compacted.
+ */
+final class UnloadCompactor {
+  static final String COMPACTED_FILE_PREFIX = "compacted_";
+  private static final Logger LOG = LoggerFactory.getLogger(UnloadCompactor.class);
+  // name of a file written by UNLOAD: <prefix><slice>_part_<nn>, with the extension of the compression if any
+  private static final Pattern UNLOADED_FILE_PATTERN = Pattern.compile("\\d+_part_\\d+(\\.[a-z0-9]+)?$");
+  private static final Comparator<UnloadedFile> BY_PATH = new Comparator<UnloadedFile>() {
+    @Override
+    public int compare(UnloadedFile file1, UnloadedFile file2) {
+      return file1.getPath().compareTo(file2.getPath());
+    }
+  };
+
+  private final ObjectStore store;
+  private final long targetBytes;
+  private final int maxConcurrency;
+
+  UnloadCompactor(ObjectStore store, long targetBytes, int maxConcurrency) {
+    this.store = store;
+    this.targetBytes = targetBytes;
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  /**
+   * Compacts the files of the given results, writing up to {@code maxConcurrency} compacted files at the same time.
+   * Compacted files of an earlier run at the same location that were not rewritten by this run are deleted, since
+   * their data has been unloaded again.
+   *
+   * @return the results with their files replaced by the compacted files
+   */
+  List<UnloadResult> compact(List<UnloadResult> results) throws IOException, InterruptedException {
+    final Map<Bin, UnloadResult> bins = new LinkedHashMap<>();
+    Set<String> groups = new HashSet<>();
+    for (UnloadResult result : results) {
+      for (Bin bin : plan(result.getFiles(), targetBytes)) {
+        bins.put(bin, result);
+      }
+      for (UnloadedFile file : result.getFiles()) {
+        String group = getGroup(file.getPath());
+        if (group != null) {
+          groups.add(group);
+        }
+      }
+    }
+
+    Map<Bin, UnloadedFile> compacted = new HashMap<>();
+    if (!bins.isEmpty()) {
+      ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(maxConcurrency, bins.size()),
+        new ThreadFactoryBuilder().setNameFormat("redshift-compaction-%d").setDaemon(true).build());
+      try {
+        CompletionService<UnloadedFile> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<UnloadedFile>, Bin> pending = new HashMap<>();
+        for (final Bin bin : bins.keySet()) {
+          pending.put(completionService.submit(new Callable<UnloadedFile>() {
+            @Override
+            public UnloadedFile call() throws IOException {
+              return write(bin);
+            }
+          }), bin);
+        }
+        for (int i = 0; i < bins.size(); i++) {
+          Future<UnloadedFile> future = completionService.take();
+          try {
+            compacted.put(pending.get(future), future.get());
+          } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause(), IOException.class);
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+          }
+        }
+      } finally {
+        // interrupts the compactions that are still running, their files are kept
+        executor.shutdownNow();
+      }
+    }
+
+    Set<String> written = new HashSet<>();
+    for (UnloadedFile file : compacted.values()) {
+      written.add(file.getPath());
+    }
+    for (String group : groups) {
+      for (String path : store.list(group + COMPACTED_FILE_PREFIX).keySet()) {
+        if (!written.contains(path)) {
+          store.delete(path);
+        }
+      }
+    }
+
+    List<UnloadResult> compactedResults = new ArrayList<>();
+    int before = 0;
+    int after = 0;
+    for (UnloadResult result : results) {
+      Set<String> replaced = new HashSet<>();
+      List<UnloadedFile> files = new ArrayList<>();
+      for (Map.Entry<Bin, UnloadResult> entry : bins.entrySet()) {
+        if (entry.getValue() == result) {
+          for (UnloadedFile file : entry.getKey().getFiles()) {
+            replaced.add(file.getPath());
+          }
+          files.add(compacted.get(entry.getKey()));
+        }
+      }
+      for (UnloadedFile file : result.getFiles()) {
+        if (!replaced.contains(file.getPath())) {
+          files.add(file);
+        }
+      }
+      Collections.sort(files, BY_PATH);
+      before += result.getFiles().size();
+      after += files.size();
+      compactedResults.add(result.withFiles(files));
+    }
+    LOG.info("Compacted {} unloaded files into {} files.", before, after);
+    return compactedResults;
+  }
+
+  /**
+   * Packs the files into bins of at most the target size. Only files of the same directory and compression are
+   * packed together, files that are already as large as the target and bins of a single file are left as they are.
+   */
+  static List<Bin> plan(List<UnloadedFile> files, long targetBytes) {
+    Map<String, List<UnloadedFile>> groups = new LinkedHashMap<>();
+    List<UnloadedFile> sorted = new ArrayList<>(files);
+    Collections.sort(sorted, BY_PATH);
+    for (UnloadedFile file : sorted) {
+      String group = getGroup(file.getPath());
+      if (group == null || file.getSize() >= targetBytes) {
+        continue;
+      }
+      String key = group + "|" + getExtension(file.getPath());
+      List<UnloadedFile> groupFiles = groups.get(key);
+      if (groupFiles == null) {
+        groupFiles = new ArrayList<>();
+        groups.put(key, groupFiles);
+      }
+      groupFiles.add(file);
+    }
+
+    List<Bin> bins = new ArrayList<>();
+    Map<String, Integer> binCounts = new HashMap<>();
+    for (List<UnloadedFile> groupFiles : groups.values()) {
+      List<UnloadedFile> binFiles = new ArrayList<>();
+      long binBytes = 0L;
+      for (UnloadedFile file : groupFiles) {
+        if (!binFiles.isEmpty() && binBytes + file.getSize() > targetBytes) {
+          addBin(bins, binCounts, binFiles);
+          binFiles = new ArrayList<>();
+          binBytes = 0L;
+        }
+        binFiles.add(file);
+        binBytes += file.getSize();
+      }
+      addBin(bins, binCounts, binFiles);
+    }
+    return bins;
+  }
+
+  private static void addBin(List<Bin> bins, Map<String, Integer> binCounts, List<UnloadedFile> files) {
+    if (files.size() < 2) {
+      return;
+    }
+    String path = files.get(0).getPath();
+    String group = getGroup(path);
+    // bins of different compressions in the same directory are numbered together, so that their names differ
+    Integer count = binCounts.get(group);
+    int index = count == null ? 0 : count;
+    binCounts.put(group, index + 1);
+    bins.add(new Bin(group + COMPACTED_FILE_PREFIX + String.format("%04d", index) + getExtension(path), files));
+  }
+
+  /**
+   * Concatenates the files of the bin into the compacted file and deletes them. If the compacted file can not be
+   * written, it is deleted and the files of the bin are kept.
+   */
+  private UnloadedFile write(Bin bin) throws IOException {
+    long rowCount = 0L;
+    CountingOutputStream os = new CountingOutputStream(store.create(bin.getPath()));
+    boolean written = false;
+    try {
+      for (UnloadedFile file : bin.getFiles()) {
+        InputStream is = store.open(file.getPath());
+        try {
+          ByteStreams.copy(is, os);
+        } finally {
+          is.close();
+        }
+        rowCount += Math.max(file.getRowCount(), 0L);
+      }
+      os.close();
+      written = true;
+    } finally {
+      if (!written) {
+        try {
+          os.close();
+          store.delete(bin.getPath());
+        } catch (IOException e) {
+          LOG.warn("Failed to delete the partially compacted file '{}'.", bin.getPath(), e);
+        }
+      }
+    }
+    for (UnloadedFile file : bin.getFiles()) {
+      store.delete(file.getPath());
+    }
+    return new UnloadedFile(bin.getPath(), rowCount, os.getCount());
+  }
+
+  /**
+   * Returns the path up to the name UNLOAD generated for the file, that is the directory of the file together with
+   * the name prefix of the unload, or {@code null} if the file was not written by UNLOAD.
+   */
+  private static String getGroup(String path) {
+    Matcher matcher = UNLOADED_FILE_PATTERN.matcher(path);
+    return matcher.find() ? path.substring(0, matcher.start()) : null;
+  }
+
+  private static String getExtension(String path) {
+    Matcher matcher = UNLOADED_FILE_PATTERN.matcher(path);
+    return matcher.find() && matcher.group(1) != null ? matcher.group(1) : "";
+  }
+
+  /**
+   * Files that are concatenated into one compacted file.
+   */
+  static final class Bin {
+    private final String path;
+    private final List<UnloadedFile> files;
+
+    Bin(String path, List<UnloadedFile> files) {
+      this.path = path;
+      this.files = files;
+    }
+
+    /**
+     * Returns the path of the compacted file.
+     */
+    String getPath() {
+      return path;
+    }
+
+    List<UnloadedFile> getFiles() {
+      return files;
+    }
+  }
+}
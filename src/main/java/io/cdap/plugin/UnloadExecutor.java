@@ -0,0 +1,305 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Runs {@link UnloadTask}s on connections taken from a {@link ConnectionPool}, at most {@code maxConcurrency} at a
+ * time. The first failing task fails the whole unload. The statements are watched by an {@link UnloadWatchdog},
+ * which cancels them when they exceed the statement timeout, when a task fails, or when the calling thread is
+ * interrupted because the pipeline is stopped. Tasks that fail with a transient error are retried with an
+ * exponential backoff, using their ALLOWOVERWRITE command. ALLOWOVERWRITE only replaces the files of the same name,
+ * so the objects the failed attempt added under the path of the task, such as further MAXFILESIZE parts or
+ * PARTITION BY directories, are deleted before the retry. The objects under the path before the first attempt are
+ * recorded in the checkpoint, so that the same is done for the tasks of a resumed unload.
+ */
+final class UnloadExecutor {
+  private static final Logger LOG = LoggerFactory.getLogger(UnloadExecutor.class);
+  private static final long INITIAL_RETRY_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(2);
+  private static final long MAX_RETRY_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private final ConnectionPool pool;
+  private final ObjectStore store;
+  private final int maxConcurrency;
+  private final long timeoutMillis;
+  private final int maxRetries;
+  private final WlmThrottle throttle;
+
+  /**
+   * @param timeoutMillis the time after which an UNLOAD statement is cancelled, or 0 for no timeout
+   * @param maxRetries the number of times a task that failed with a transient error is retried
+   * @param throttle limits the UNLOAD statements that run at the same time, shared by all executors of a run
+   */
+  UnloadExecutor(ConnectionPool pool, ObjectStore store, int maxConcurrency, long timeoutMillis, int maxRetries,
+                 WlmThrottle throttle) {
+    this.pool = pool;
+    this.store = store;
+    this.maxConcurrency = maxConcurrency;
+    this.timeoutMillis = timeoutMillis;
+    this.maxRetries = maxRetries;
+    this.throttle = throttle;
+  }
+
+  /**
+   * Runs the given tasks and returns their results, in the same order as the tasks.
+   */
+  List<UnloadResult> execute(List<UnloadTask> tasks) throws SQLException, InterruptedException {
+    return execute(tasks, null);
+  }
+
+  /**
+   * Runs the given tasks and returns their results, in the same order as the tasks. Tasks that completed according
+   * to the checkpoint are not run again, every task that completes is recorded in the checkpoint.
+   */
+  List<UnloadResult> execute(List<UnloadTask> tasks,
+                             @Nullable final UnloadCheckpoint checkpoint) throws SQLException, InterruptedException {
+    UnloadResult[] results = new UnloadResult[tasks.size()];
+    List<Integer> pending = new ArrayList<>();
+    for (int i = 0; i < tasks.size(); i++) {
+      results[i] = checkpoint == null ? null : checkpoint.getResult(tasks.get(i));
+      if (results[i] == null) {
+        pending.add(i);
+      }
+    }
+    if (pending.isEmpty()) {
+      return Arrays.asList(results);
+    }
+    // a resumed task may have left partial output behind in the failed run
+    final boolean overwrite = checkpoint != null && checkpoint.isResumed();
+
+    // the statements always run on worker threads, so that the calling thread can cancel them when interrupted
+    ExecutorService executor = Executors.newFixedThreadPool(
+      Math.min(maxConcurrency, pending.size()),
+      new ThreadFactoryBuilder().setNameFormat("redshift-unload-%d").setDaemon(true).build());
+    final UnloadWatchdog watchdog = new UnloadWatchdog(pool, timeoutMillis, UnloadWatchdog.PROGRESS_INTERVAL_MILLIS);
+    boolean succeeded = false;
+    try {
+      CompletionService<UnloadResult> completionService = new ExecutorCompletionService<>(executor);
+      List<Future<UnloadResult>> futures = new ArrayList<>();
+      for (int i : pending) {
+        final UnloadTask task = tasks.get(i);
+        futures.add(completionService.submit(new Callable<UnloadResult>() {
+          @Override
+          public UnloadResult call() throws Exception {
+            try {
+              Map<String, Long> existing = checkpoint == null ? null : checkpoint.getExistingObjects(task);
+              if (existing == null) {
+                existing = list(task);
+                if (checkpoint != null) {
+                  checkpoint.started(task, existing);
+                }
+              } else {
+                // the task was started by the failed run, which may have left partial output behind
+                deleteNewObjects(task, existing);
+              }
+              UnloadResult result = executeWithRetries(task, watchdog, overwrite, existing);
+              if (checkpoint != null) {
+                checkpoint.complete(result);
+              }
+              return result;
+            } catch (SQLException e) {
+              throw new SQLException(String.format("Unload of partition '%s' to '%s' failed. %s",
+                                                   task.getId(), task.getS3Path(), e.getMessage()),
+                                     e.getSQLState(), e.getErrorCode(), e);
+            }
+          }
+        }));
+      }
+      // wait in completion order, so that the first failure is reported without waiting for the other tasks
+      for (int i = 0; i < pending.size(); i++) {
+        getResult(completionService.take());
+      }
+      for (int i = 0; i < pending.size(); i++) {
+        results[pending.get(i)] = getResult(futures.get(i));
+      }
+      succeeded = true;
+      return Arrays.asList(results);
+    } finally {
+      if (!succeeded) {
+        // a JDBC call does not return when its thread is interrupted, the statements have to be cancelled
+        watchdog.cancelAll();
+      }
+      executor.shutdownNow();
+      watchdog.close();
+    }
+  }
+
+  private UnloadResult executeWithRetries(UnloadTask task, UnloadWatchdog watchdog, boolean overwrite,
+                                          Map<String, Long> existing) throws SQLException, InterruptedException {
+    String command = overwrite ? task.getRetryCommand() : task.getCommand();
+    long backoffMillis = INITIAL_RETRY_BACKOFF_MILLIS;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return execute(task, command, watchdog);
+      } catch (SQLException e) {
+        if (attempt > maxRetries || !isTransient(e)) {
+          throw e;
+        }
+        LOG.warn("Unload of partition '{}' failed with transient error '{}' (SQLState {}), retrying in {} ms. " +
+                   "Retry {} of {}.", task.getId(), e.getMessage(), e.getSQLState(), backoffMillis, attempt,
+                 maxRetries);
+        TimeUnit.MILLISECONDS.sleep(backoffMillis);
+        backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_BACKOFF_MILLIS);
+        deleteNewObjects(task, existing);
+        command = task.getRetryCommand();
+      }
+    }
+  }
+
+  private Map<String, Long> list(UnloadTask task) throws SQLException {
+    try {
+      return store.list(task.getS3Path());
+    } catch (IOException e) {
+      throw new SQLException(String.format("Failed to list the objects under '%s'. %s", task.getS3Path(),
+                                           e.getMessage()), e);
+    }
+  }
+
+  /**
+   * Deletes the objects under the path of the task that were added or rewritten since the given objects were listed,
+   * which are the partial output of a failed attempt.
+   */
+  private void deleteNewObjects(UnloadTask task, Map<String, Long> existing) throws SQLException {
+    int deleted = 0;
+    try {
+      for (Map.Entry<String, Long> object : store.list(task.getS3Path()).entrySet()) {
+        String relativePath = object.getKey().substring(task.getS3Path().length());
+        // hidden objects, such as the checkpoint under _state/, are not written by UNLOAD
+        if (relativePath.startsWith("_") || relativePath.contains("/_")) {
+          continue;
+        }
+        if (!object.getValue().equals(existing.get(object.getKey()))) {
+          store.delete(object.getKey());
+          deleted++;
+        }
+      }
+    } catch (IOException e) {
+      // unloading again next to the partial output would duplicate its rows
+      throw new SQLException(String.format("Failed to delete the partial output of partition '%s' under '%s'. %s",
+                                           task.getId(), task.getS3Path(), e.getMessage()), e);
+    }
+    if (deleted > 0) {
+      LOG.info("Deleted {} files of a failed attempt of partition '{}' under '{}'.", deleted, task.getId(),
+               task.getS3Path());
+    }
+  }
+
+  /**
+   * Returns whether the error is likely to go away when the statement is retried: connection failures,
+   * serialization failures and deadlocks, insufficient resources, server shutdowns and S3 throttling.
+   */
+  static boolean isTransient(SQLException e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (!(t instanceof SQLException)) {
+        continue;
+      }
+      String state = Strings.nullToEmpty(((SQLException) t).getSQLState());
+      if (state.startsWith("08") || state.startsWith("53") || state.equals("40001") || state.equals("40P01") ||
+        state.equals("57P01") || state.equals("57P02") || state.equals("57P03")) {
+        return true;
+      }
+      String message = Strings.nullToEmpty(t.getMessage());
+      if (message.contains("Slow Down") || message.contains("SlowDown") ||
+        message.contains("reduce your request rate")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private UnloadResult execute(UnloadTask task, String command,
+                               UnloadWatchdog watchdog) throws SQLException, InterruptedException {
+    Connection conn = pool.acquire();
+    boolean broken = false;
+    try {
+      throttle.acquire(conn);
+      try {
+        return execute(task, command, watchdog, conn);
+      } finally {
+        throttle.release();
+      }
+    } catch (SQLException e) {
+      broken = Strings.nullToEmpty(e.getSQLState()).startsWith("08");
+      throw e;
+    } finally {
+      if (broken) {
+        pool.discard(conn);
+      } else {
+        pool.release(conn);
+      }
+    }
+  }
+
+  private UnloadResult execute(UnloadTask task, String command, UnloadWatchdog watchdog,
+                               Connection conn) throws SQLException, InterruptedException {
+    int pid = UnloadWatchdog.getBackendPid(conn);
+    Statement stmt = conn.createStatement();
+    try {
+      watchdog.start(task, stmt, pid);
+      try {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedException();
+        }
+        stmt.executeUpdate(command);
+      } catch (SQLException e) {
+        throw watchdog.getError(task, e);
+      } finally {
+        watchdog.stop(task);
+      }
+    } finally {
+      stmt.close();
+    }
+    return UnloadResult.read(conn, task);
+  }
+
+  private static UnloadResult getResult(Future<UnloadResult> future) throws SQLException, InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new SQLException(cause.getMessage(), cause);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the manifest written by {@code UNLOAD ... MANIFEST VERBOSE}, which lists every data file together with its
+ * size and number of records.
+ */
+final class UnloadManifest {
+  static final String MANIFEST_SUFFIX = "manifest";
+
+  private UnloadManifest() {
+  }
+
+  /**
+   * Returns the path of the manifest written by an unload to the given S3 path.
+   */
+  static String getManifestPath(String s3Path) {
+    return s3Path + MANIFEST_SUFFIX;
+  }
+
+  /**
+   * Reads the files listed in the manifest at the given path.
+   */
+  static List<UnloadedFile> read(ObjectStore store, String manifestPath) throws IOException {
+    InputStream is = store.open(manifestPath);
+    try {
+      return parse(new InputStreamReader(is, StandardCharsets.UTF_8));
+    } catch (JsonParseException | IllegalStateException | ClassCastException e) {
+      throw new IOException(String.format("Invalid manifest '%s'. %s", manifestPath, e.getMessage()), e);
+    } finally {
+      is.close();
+    }
+  }
+
+  static List<UnloadedFile> parse(Reader reader) {
+    JsonObject manifest = new JsonParser().parse(reader).getAsJsonObject();
+    List<UnloadedFile> files = new ArrayList<>();
+    JsonArray entries = manifest.getAsJsonArray("entries");
+    if (entries == null) {
+      throw new JsonParseException("Manifest has no 'entries'.");
+    }
+    for (JsonElement element : entries) {
+      JsonObject entry = element.getAsJsonObject();
+      if (!entry.has("url")) {
+        throw new JsonParseException("Manifest entry has no 'url'.");
+      }
+      long size = -1L;
+      long records = -1L;
+      // meta is only written with MANIFEST VERBOSE
+      JsonObject meta = entry.getAsJsonObject("meta");
+      if (meta != null) {
+        size = meta.has("content_length") ? meta.get("content_length").getAsLong() : -1L;
+        records = meta.has("record_count") ? meta.get("record_count").getAsLong() : -1L;
+      }
+      files.add(new UnloadedFile(entry.get("url").getAsString(), records, size));
+    }
+    return files;
+  }
+}
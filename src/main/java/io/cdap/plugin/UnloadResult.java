@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The outcome of an {@link UnloadTask}: the Redshift query id of the unload, the files it wrote, as recorded in
+ * STL_UNLOAD_LOG, and how long the unload waited and ran, as recorded in STL_WLM_QUERY and SVL_QUERY_REPORT.
+ */
+final class UnloadResult {
+  private final UnloadTask task;
+  private final long queryId;
+  private final List<UnloadedFile> files;
+  private final long queueTimeMicros;
+  private final long execTimeMicros;
+  private final double sliceSkew;
+
+  UnloadResult(UnloadTask task, long queryId, List<UnloadedFile> files) {
+    this(task, queryId, files, 0L, 0L, 1.0);
+  }
+
+  UnloadResult(UnloadTask task, long queryId, List<UnloadedFile> files, long queueTimeMicros, long execTimeMicros,
+               double sliceSkew) {
+    this.task = task;
+    this.queryId = queryId;
+    this.files = Collections.unmodifiableList(files);
+    this.queueTimeMicros = queueTimeMicros;
+    this.execTimeMicros = execTimeMicros;
+    this.sliceSkew = sliceSkew;
+  }
+
+  /**
+   * Reads the result of the last UNLOAD command run on the given connection. Must be called on the same connection
+   * as the unload, since the query id is looked up with {@code pg_last_query_id()}.
+   */
+  static UnloadResult read(Connection conn, UnloadTask task) throws SQLException {
+    long queryId;
+    Statement stmt = conn.createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery("select pg_last_query_id()");
+      rs.next();
+      queryId = rs.getLong(1);
+    } finally {
+      stmt.close();
+    }
+    List<UnloadedFile> files = new ArrayList<>();
+    PreparedStatement logStmt = conn.prepareStatement(
+      "select trim(path), line_count, transfer_size from stl_unload_log where query = ? order by path");
+    try {
+      logStmt.setLong(1, queryId);
+      ResultSet rs = logStmt.executeQuery();
+      while (rs.next()) {
+        files.add(new UnloadedFile(rs.getString(1), rs.getLong(2), rs.getLong(3)));
+      }
+    } finally {
+      logStmt.close();
+    }
+
+    long queueTimeMicros = 0L;
+    long execTimeMicros = 0L;
+    PreparedStatement wlmStmt = conn.prepareStatement(
+      "select coalesce(sum(total_queue_time), 0), coalesce(sum(total_exec_time), 0) from stl_wlm_query " +
+        "where query = ?");
+    try {
+      wlmStmt.setLong(1, queryId);
+      ResultSet rs = wlmStmt.executeQuery();
+      if (rs.next()) {
+        queueTimeMicros = rs.getLong(1);
+        execTimeMicros = rs.getLong(2);
+      }
+    } finally {
+      wlmStmt.close();
+    }
+
+    double sliceSkew = 1.0;
+    PreparedStatement reportStmt = conn.prepareStatement(
+      "select max(elapsed), avg(elapsed) from (select slice, max(elapsed_time)::float8 as elapsed " +
+        "from svl_query_report where query = ? group by slice) as s");
+    try {
+      reportStmt.setLong(1, queryId);
+      ResultSet rs = reportStmt.executeQuery();
+      if (rs.next()) {
+        sliceSkew = getSliceSkew(rs.getDouble(1), rs.getDouble(2));
+      }
+    } finally {
+      reportStmt.close();
+    }
+    return new UnloadResult(task, queryId, files, queueTimeMicros, execTimeMicros, sliceSkew);
+  }
+
+  /**
+   * Returns the ratio of the slowest slice to the average slice, 1.0 if the slice times are not known.
+   */
+  static double getSliceSkew(double maxSliceTime, double avgSliceTime) {
+    return avgSliceTime > 0 ? maxSliceTime / avgSliceTime : 1.0;
+  }
+
+  /**
+   * Returns this result with the given files instead of the files written by the unload, for files that were
+   * rewritten after the unload.
+   */
+  UnloadResult withFiles(List<UnloadedFile> files) {
+    return new UnloadResult(task, queryId, files, queueTimeMicros, execTimeMicros, sliceSkew);
+  }
+
+  UnloadTask getTask() {
+    return task;
+  }
+
+  long getQueryId() {
+    return queryId;
+  }
+
+  List<UnloadedFile> getFiles() {
+    return files;
+  }
+
+  /**
+   * Returns the number of rows written, as recorded in STL_UNLOAD_LOG.
+   */
+  long getRowCount() {
+    long rows = 0L;
+    for (UnloadedFile file : files) {
+      rows += file.getRowCount();
+    }
+    return rows;
+  }
+
+  /**
+   * Returns the number of bytes written, as recorded in STL_UNLOAD_LOG.
+   */
+  long getSize() {
+    long size = 0L;
+    for (UnloadedFile file : files) {
+      size += file.getSize();
+    }
+    return size;
+  }
+
+  /**
+   * Returns the time the unload waited in the WLM queue, in microseconds.
+   */
+  long getQueueTimeMicros() {
+    return queueTimeMicros;
+  }
+
+  /**
+   * Returns the time the unload ran, in microseconds.
+   */
+  long getExecTimeMicros() {
+    return execTimeMicros;
+  }
+
+  /**
+   * Returns the ratio of the time taken by the slowest slice to the average time taken by a slice. Close to 1.0
+   * when the rows are evenly distributed over the slices.
+   */
+  double getSliceSkew() {
+    return sliceSkew;
+  }
+
+  /**
+   * Returns the Hive style partition directories ({@code col=value/...}) the files were written to, relative to the
+   * S3 path of the task.
+   */
+  Set<String> getPartitions() {
+    Set<String> partitions = new TreeSet<>();
+    String prefix = task.getS3Path();
+    for (UnloadedFile file : files) {
+      String path = file.getPath();
+      if (!path.startsWith(prefix)) {
+        continue;
+      }
+      String relative = path.substring(prefix.length());
+      int idx = relative.lastIndexOf('/');
+      if (idx > 0) {
+        partitions.add(relative.substring(0, idx));
+      }
+    }
+    return partitions;
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of all UNLOAD commands of a run, aggregated from their {@link UnloadResult}s. Queue and execution
+ * times are summed over the commands, the slice skew is the worst skew of any command.
+ */
+final class UnloadStatistics {
+  private final long rowCount;
+  private final long size;
+  private final int fileCount;
+  private final long queueTimeMicros;
+  private final long execTimeMicros;
+  private final double sliceSkew;
+
+  private UnloadStatistics(long rowCount, long size, int fileCount, long queueTimeMicros, long execTimeMicros,
+                           double sliceSkew) {
+    this.rowCount = rowCount;
+    this.size = size;
+    this.fileCount = fileCount;
+    this.queueTimeMicros = queueTimeMicros;
+    this.execTimeMicros = execTimeMicros;
+    this.sliceSkew = sliceSkew;
+  }
+
+  static UnloadStatistics of(List<UnloadResult> results) {
+    long rowCount = 0L;
+    long size = 0L;
+    int fileCount = 0;
+    long queueTimeMicros = 0L;
+    long execTimeMicros = 0L;
+    double sliceSkew = 1.0;
+    for (UnloadResult result : results) {
+      rowCount += result.getRowCount();
+      size += result.getSize();
+      fileCount += result.getFiles().size();
+      queueTimeMicros += result.getQueueTimeMicros();
+      execTimeMicros += result.getExecTimeMicros();
+      sliceSkew = Math.max(sliceSkew, result.getSliceSkew());
+    }
+    return new UnloadStatistics(rowCount, size, fileCount, queueTimeMicros, execTimeMicros, sliceSkew);
+  }
+
+  long getRowCount() {
+    return rowCount;
+  }
+
+  long getSize() {
+    return size;
+  }
+
+  int getFileCount() {
+    return fileCount;
+  }
+
+  long getQueueTimeMillis() {
+    return TimeUnit.MICROSECONDS.toMillis(queueTimeMicros);
+  }
+
+  long getExecTimeMillis() {
+    return TimeUnit.MICROSECONDS.toMillis(execTimeMicros);
+  }
+
+  double getSliceSkew() {
+    return sliceSkew;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("rows=%d, bytes=%d, files=%d, queueTimeMs=%d, execTimeMs=%d, sliceSkew=%.2f",
+                         rowCount, size, fileCount, getQueueTimeMillis(), getExecTimeMillis(), sliceSkew);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+/**
+ * A single UNLOAD statement, together with the query and the S3 location it unloads to. The retry command is the
+ * same statement with ALLOWOVERWRITE, which replaces the partial output of a failed attempt.
+ */
+final class UnloadTask {
+  private final String id;
+  private final String query;
+  private final String s3Path;
+  private final String command;
+  private final String retryCommand;
+
+  UnloadTask(String id, String query, String s3Path, String command) {
+    this(id, query, s3Path, command, command);
+  }
+
+  UnloadTask(String id, String query, String s3Path, String command, String retryCommand) {
+    this.id = id;
+    this.query = query;
+    this.s3Path = s3Path;
+    this.command = command;
+    this.retryCommand = retryCommand;
+  }
+
+  String getId() {
+    return id;
+  }
+
+  String getQuery() {
+    return query;
+  }
+
+  String getS3Path() {
+    return s3Path;
+  }
+
+  String getCommand() {
+    return command;
+  }
+
+  String getRetryCommand() {
+    return retryCommand;
+  }
+
+  @Override
+  public String toString() {
+    return "UnloadTask{id='" + id + "', s3Path='" + s3Path + "'}";
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.annotation.Nullable;
+
+/**
+ * The PARALLEL, MAXFILESIZE and compression options chosen for an unload from the estimated result size and the
+ * number of slices of the cluster:
+ * <ul>
+ *   <li>Results that fit in one file of the target size, or that would spread less than a megabyte over each slice,
+ *   are unloaded with PARALLEL OFF and without compression, as a single file.</li>
+ *   <li>Larger results, and results without an estimate, are unloaded in parallel with a MAXFILESIZE of the target
+ *   size and compressed with BZIP2.</li>
+ * </ul>
+ * MAXFILESIZE caps the compressed size of a file, which may decompress to many splits of the next stage, so the
+ * compression has to be splittable. BZIP2 is, and is read by the pure Java codec of Hadoop. ZSTD is neither, and
+ * needs the native Hadoop codec, so it is only used when chosen explicitly.
+ */
+final class UnloadTuning {
+  static final String COMPRESSION_NONE = "NONE";
+  static final String COMPRESSION_BZIP2 = "BZIP2";
+  private static final long MIN_BYTES_PER_SLICE = 1024L * 1024;
+
+  private final boolean parallel;
+  @Nullable
+  private final Integer maxFileSizeMb;
+  private final String compression;
+
+  UnloadTuning(boolean parallel, @Nullable Integer maxFileSizeMb, String compression) {
+    this.parallel = parallel;
+    this.maxFileSizeMb = maxFileSizeMb;
+    this.compression = compression;
+  }
+
+  /**
+   * Chooses the options for a result of the estimated size.
+   *
+   * @param estimatedBytes the estimated size of the result, or {@code null} if unknown
+   * @param slices the number of slices of the cluster
+   * @param targetFileSizeMb the file size the next stage splits its input into, in megabytes
+   * @param compressible whether the format can be compressed, which PARQUET can not
+   */
+  static UnloadTuning choose(@Nullable Long estimatedBytes, int slices, int targetFileSizeMb, boolean compressible) {
+    long targetBytes = targetFileSizeMb * 1024L * 1024L;
+    if (estimatedBytes != null &&
+      (estimatedBytes <= targetBytes || estimatedBytes < MIN_BYTES_PER_SLICE * Math.max(slices, 1))) {
+      return new UnloadTuning(false, null, COMPRESSION_NONE);
+    }
+    return new UnloadTuning(true, targetFileSizeMb, compressible ? COMPRESSION_BZIP2 : COMPRESSION_NONE);
+  }
+
+  /**
+   * Returns the number of slices of the cluster.
+   */
+  static int readSliceCount(Connection conn) throws SQLException {
+    Statement stmt = conn.createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery("select count(*) from stv_slices");
+      return rs.next() ? rs.getInt(1) : 1;
+    } finally {
+      stmt.close();
+    }
+  }
+
+  boolean isParallel() {
+    return parallel;
+  }
+
+  /**
+   * Returns the MAXFILESIZE in megabytes, or {@code null} for the default of UNLOAD.
+   */
+  @Nullable
+  Integer getMaxFileSizeMb() {
+    return maxFileSizeMb;
+  }
+
+  String getCompression() {
+    return compression;
+  }
+
+  @Override
+  public String toString() {
+    return "parallel=" + parallel + ", maxFileSizeMb=" + maxFileSizeMb + ", compression=" + compression;
+  }
+}
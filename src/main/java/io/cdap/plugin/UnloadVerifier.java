@@ -0,0 +1,210 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+
+/**
+ * Verifies the output of an unload, which Redshift reports as complete as soon as the UNLOAD command returns. The
+ * objects under the S3 path of every {@link UnloadTask} are listed once and compared with the sizes recorded in
+ * STL_UNLOAD_LOG and, if written, in the manifest, and the rows of the query are counted and compared with the rows
+ * recorded in STL_UNLOAD_LOG. The tasks are verified concurrently, at most {@code maxConcurrency} at a time. Like
+ * the UNLOAD statements, the counting statements are watched by an {@link UnloadWatchdog}, which cancels them when
+ * they exceed the statement timeout, when the verification of another task fails, or when the calling thread is
+ * interrupted because the pipeline is stopped.
+ */
+final class UnloadVerifier {
+  private static final int MAX_REPORTED_PROBLEMS = 3;
+
+  private final ConnectionPool pool;
+  private final WlmThrottle throttle;
+  private final ObjectStore store;
+  private final int maxConcurrency;
+  private final long timeoutMillis;
+  private final boolean manifest;
+
+  /**
+   * @param timeoutMillis the time after which counting the rows of a query is cancelled, or 0 for no timeout
+   * @param manifest whether the unload wrote a manifest
+   */
+  UnloadVerifier(ConnectionPool pool, WlmThrottle throttle, ObjectStore store, int maxConcurrency,
+                 long timeoutMillis, boolean manifest) {
+    this.pool = pool;
+    this.throttle = throttle;
+    this.store = store;
+    this.maxConcurrency = maxConcurrency;
+    this.timeoutMillis = timeoutMillis;
+    this.manifest = manifest;
+  }
+
+  /**
+   * Verifies the output of the given results.
+   *
+   * @return the problems found, by index of the result, empty if the output of all results is complete
+   */
+  SortedMap<Integer, String> verify(List<UnloadResult> results) throws SQLException, IOException,
+    InterruptedException {
+    SortedMap<Integer, String> problems = new TreeMap<>();
+    if (results.isEmpty()) {
+      return problems;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(
+      Math.min(maxConcurrency, results.size()),
+      new ThreadFactoryBuilder().setNameFormat("redshift-verify-%d").setDaemon(true).build());
+    final UnloadWatchdog watchdog = new UnloadWatchdog(pool, timeoutMillis, UnloadWatchdog.PROGRESS_INTERVAL_MILLIS);
+    boolean succeeded = false;
+    try {
+      CompletionService<String> completionService = new ExecutorCompletionService<>(executor);
+      Map<Future<String>, Integer> pending = new HashMap<>();
+      for (int i = 0; i < results.size(); i++) {
+        final UnloadResult result = results.get(i);
+        pending.put(completionService.submit(new Callable<String>() {
+          @Override
+          public String call() throws Exception {
+            return verify(result, watchdog);
+          }
+        }), i);
+      }
+      for (int i = 0; i < results.size(); i++) {
+        Future<String> future = completionService.take();
+        try {
+          String problem = future.get();
+          if (problem != null) {
+            problems.put(pending.get(future), problem);
+          }
+        } catch (ExecutionException e) {
+          Throwables.propagateIfPossible(e.getCause(), SQLException.class, IOException.class);
+          throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+      }
+      succeeded = true;
+      return problems;
+    } finally {
+      if (!succeeded) {
+        // a JDBC call does not return when its thread is interrupted, the statements have to be cancelled
+        watchdog.cancelAll();
+      }
+      executor.shutdownNow();
+      watchdog.close();
+    }
+  }
+
+  /**
+   * Verifies the output of a single result.
+   *
+   * @return the problems found, or {@code null} if the output is complete
+   */
+  @Nullable
+  private String verify(UnloadResult result, UnloadWatchdog watchdog)
+    throws SQLException, IOException, InterruptedException {
+    UnloadTask task = result.getTask();
+    SortedMap<String, Long> objects = store.list(task.getS3Path());
+    List<String> problems = compareSizes(result.getFiles(), objects, "STL_UNLOAD_LOG");
+    if (manifest) {
+      String manifestPath = UnloadManifest.getManifestPath(task.getS3Path());
+      problems.addAll(compareSizes(UnloadManifest.read(store, manifestPath), objects, "the manifest"));
+    }
+    // no need to count the rows of an output that is known to be incomplete
+    if (problems.isEmpty()) {
+      long rows = countRows(task, watchdog);
+      if (rows != result.getRowCount()) {
+        problems.add(String.format("The query returns %d rows, STL_UNLOAD_LOG recorded %d.", rows,
+                                   result.getRowCount()));
+      }
+    }
+    if (problems.isEmpty()) {
+      return null;
+    }
+    String reported = Joiner.on(' ').join(problems.subList(0, Math.min(problems.size(), MAX_REPORTED_PROBLEMS)));
+    return problems.size() > MAX_REPORTED_PROBLEMS
+      ? String.format("%s And %d more problems.", reported, problems.size() - MAX_REPORTED_PROBLEMS) : reported;
+  }
+
+  /**
+   * Compares the sizes of the files with the sizes of the objects. Files of unknown size only have to exist.
+   *
+   * @param source where the sizes of the files were recorded, for the messages
+   * @return the problems found, empty if all files match
+   */
+  static List<String> compareSizes(List<UnloadedFile> files, Map<String, Long> objects, String source) {
+    List<String> problems = new ArrayList<>();
+    for (UnloadedFile file : files) {
+      Long size = objects.get(file.getPath());
+      if (size == null) {
+        problems.add(String.format("File '%s' recorded in %s does not exist.", file.getPath(), source));
+      } else if (file.getSize() >= 0 && size != file.getSize()) {
+        problems.add(String.format("File '%s' has %d bytes, %s recorded %d.", file.getPath(), size, source,
+                                   file.getSize()));
+      }
+    }
+    return problems;
+  }
+
+  private long countRows(UnloadTask task, UnloadWatchdog watchdog) throws SQLException, InterruptedException {
+    Connection conn = pool.acquire();
+    try {
+      throttle.acquire(conn);
+      try {
+        int pid = UnloadWatchdog.getBackendPid(conn);
+        Statement stmt = conn.createStatement();
+        try {
+          watchdog.start(task, stmt, pid);
+          try {
+            if (Thread.currentThread().isInterrupted()) {
+              throw new InterruptedException();
+            }
+            ResultSet rs = stmt.executeQuery(String.format("select count(*) from (%s) as v", task.getQuery()));
+            rs.next();
+            return rs.getLong(1);
+          } catch (SQLException e) {
+            throw watchdog.getError(task, e);
+          } finally {
+            watchdog.stop(task);
+          }
+        } finally {
+          stmt.close();
+        }
+      } finally {
+        throttle.release();
+      }
+    } finally {
+      pool.release(conn);
+    }
+  }
+}
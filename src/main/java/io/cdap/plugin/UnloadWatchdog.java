@@ -0,0 +1,279 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Watches the UNLOAD statements run by an {@link UnloadExecutor}. It periodically logs the progress and WLM queue
+ * state of every running statement, read from STV_INFLIGHT and STV_WLM_QUERY_STATE on a separate connection, and
+ * cancels statements that run longer than the statement timeout or that are cancelled by the executor. Direct
+ * fetches are watched the same way.
+ */
+final class UnloadWatchdog implements Closeable {
+  static final long PROGRESS_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+  private static final Logger LOG = LoggerFactory.getLogger(UnloadWatchdog.class);
+  private static final String QUERY_CANCELED_SQL_STATE = "57014";
+  private static final String PROGRESS_QUERY =
+    "select i.query, trim(w.state), coalesce(w.queue_time, 0), coalesce(w.exec_time, 0) from stv_inflight i " +
+      "left join stv_wlm_query_state w on w.query = i.query where i.pid = ?";
+  private static final String QUEUED_QUERY = "select count(*) from stv_wlm_query_state where state like 'Queued%'";
+
+  private final ConnectionPool pool;
+  private final long timeoutMillis;
+  private final ScheduledExecutorService scheduler;
+  private final Map<UnloadTask, Running> running;
+  private final Set<UnloadTask> timedOut;
+  private Connection monitorConn;
+
+  /**
+   * @param timeoutMillis the time after which a statement is cancelled, or 0 for no timeout
+   * @param progressIntervalMillis the interval at which the progress of the running statements is logged
+   */
+  UnloadWatchdog(ConnectionPool pool, long timeoutMillis, long progressIntervalMillis) {
+    this.pool = pool;
+    this.timeoutMillis = timeoutMillis;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("redshift-unload-watchdog").setDaemon(true).build());
+    this.running = new LinkedHashMap<>();
+    this.timedOut = new HashSet<>();
+    scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        logProgress();
+      }
+    }, progressIntervalMillis, progressIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Starts watching the statement that runs the task, on a connection with the given backend process id.
+   */
+  void start(final UnloadTask task, Statement stmt, int pid) {
+    final Running run = new Running(stmt, pid);
+    // registered before the deadline is scheduled, so that a deadline that fires early finds the statement
+    synchronized (running) {
+      running.put(task, run);
+    }
+    if (timeoutMillis > 0) {
+      run.deadline = scheduler.schedule(new Runnable() {
+        @Override
+        public void run() {
+          synchronized (running) {
+            // the task may have completed, or started again, before the deadline was cancelled
+            if (running.get(task) != run) {
+              return;
+            }
+            timedOut.add(task);
+          }
+          LOG.warn("Statement of partition '{}' exceeded the statement timeout of {} ms, cancelling it.",
+                   task.getId(), timeoutMillis);
+          cancel(task);
+        }
+      }, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops watching the task, once its statement completed.
+   */
+  void stop(UnloadTask task) {
+    Running run;
+    synchronized (running) {
+      run = running.remove(task);
+    }
+    ScheduledFuture<?> deadline = run == null ? null : run.deadline;
+    if (deadline != null) {
+      deadline.cancel(false);
+    }
+  }
+
+  /**
+   * Returns whether the statement of the task was cancelled because it exceeded the statement timeout.
+   */
+  boolean isTimedOut(UnloadTask task) {
+    synchronized (running) {
+      return timedOut.contains(task);
+    }
+  }
+
+  /**
+   * Returns the error to report for a failed statement of the task: a statement timeout if the watchdog cancelled
+   * the statement because it exceeded the timeout, the error itself otherwise.
+   */
+  SQLException getError(UnloadTask task, SQLException e) {
+    if (!isTimedOut(task)) {
+      return e;
+    }
+    return new SQLException(String.format("Statement timeout of %d seconds exceeded.",
+                                          TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)),
+                            QUERY_CANCELED_SQL_STATE, e);
+  }
+
+  /**
+   * Returns the id of the backend process of the connection, which identifies its statements in STV_INFLIGHT.
+   */
+  static int getBackendPid(Connection conn) throws SQLException {
+    Statement stmt = conn.createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery("select pg_backend_pid()");
+      rs.next();
+      return rs.getInt(1);
+    } finally {
+      stmt.close();
+    }
+  }
+
+  /**
+   * Cancels the statements of all running tasks.
+   */
+  void cancelAll() {
+    List<UnloadTask> tasks;
+    synchronized (running) {
+      tasks = new ArrayList<>(running.keySet());
+    }
+    for (UnloadTask task : tasks) {
+      cancel(task);
+    }
+  }
+
+  private void cancel(UnloadTask task) {
+    Running run;
+    synchronized (running) {
+      run = running.get(task);
+    }
+    if (run == null) {
+      return;
+    }
+    try {
+      run.stmt.cancel();
+    } catch (SQLException e) {
+      LOG.warn("Failed to cancel the unload of partition '{}'.", task.getId(), e);
+    }
+  }
+
+  private void logProgress() {
+    Map<UnloadTask, Running> snapshot;
+    synchronized (running) {
+      snapshot = new LinkedHashMap<>(running);
+    }
+    if (snapshot.isEmpty()) {
+      return;
+    }
+    try {
+      Connection conn = getMonitorConnection();
+      for (Map.Entry<UnloadTask, Running> entry : snapshot.entrySet()) {
+        logProgress(conn, entry.getKey(), entry.getValue());
+      }
+    } catch (SQLException e) {
+      // progress is informational only, the unload goes on without it
+      LOG.debug("Failed to read the progress of the unload.", e);
+      closeMonitorConnection();
+    }
+  }
+
+  private void logProgress(Connection conn, UnloadTask task, Running run) throws SQLException {
+    long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - run.startNanos);
+    PreparedStatement stmt = conn.prepareStatement(PROGRESS_QUERY);
+    try {
+      stmt.setInt(1, run.pid);
+      ResultSet rs = stmt.executeQuery();
+      if (rs.next()) {
+        LOG.info("Unload of partition '{}' is running as query {} for {} s, WLM state '{}', queued for {} ms, " +
+                   "executing for {} ms.", task.getId(), rs.getLong(1), elapsedSeconds, rs.getString(2),
+                 TimeUnit.MICROSECONDS.toMillis(rs.getLong(3)), TimeUnit.MICROSECONDS.toMillis(rs.getLong(4)));
+        return;
+      }
+    } finally {
+      stmt.close();
+    }
+    LOG.info("Unload of partition '{}' is waiting for {} s, {} queries are queued in WLM.", task.getId(),
+             elapsedSeconds, countQueuedQueries(conn));
+  }
+
+  private static long countQueuedQueries(Connection conn) throws SQLException {
+    Statement stmt = conn.createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery(QUEUED_QUERY);
+      return rs.next() ? rs.getLong(1) : 0L;
+    } finally {
+      stmt.close();
+    }
+  }
+
+  private Connection getMonitorConnection() throws SQLException {
+    if (monitorConn == null) {
+      monitorConn = pool.connect();
+    }
+    return monitorConn;
+  }
+
+  private void closeMonitorConnection() {
+    if (monitorConn != null) {
+      try {
+        monitorConn.close();
+      } catch (SQLException e) {
+        // ignore, the connection is discarded anyway
+      }
+      monitorConn = null;
+    }
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    try {
+      scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    closeMonitorConnection();
+  }
+
+  private static final class Running {
+    private final Statement stmt;
+    private final int pid;
+    private final long startNanos;
+    @Nullable
+    private volatile ScheduledFuture<?> deadline;
+
+    private Running(Statement stmt, int pid) {
+      this.stmt = stmt;
+      this.pid = pid;
+      this.startNanos = System.nanoTime();
+    }
+  }
+}
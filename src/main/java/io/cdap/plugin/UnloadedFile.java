@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+/**
+ * A data file written by an UNLOAD command.
+ */
+final class UnloadedFile {
+  private final String path;
+  private final long rowCount;
+  private final long size;
+
+  UnloadedFile(String path, long rowCount, long size) {
+    this.path = path;
+    this.rowCount = rowCount;
+    this.size = size;
+  }
+
+  /**
+   * Returns the full S3 path of the file.
+   */
+  String getPath() {
+    return path;
+  }
+
+  long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Returns the size of the file in bytes.
+   */
+  long getSize() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "UnloadedFile{path='" + path + "', rowCount=" + rowCount + ", size=" + size + "}";
+  }
+}
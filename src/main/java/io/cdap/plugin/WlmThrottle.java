@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of UNLOAD commands that run at the same time, adapting the limit to the WLM queue of the
+ * cluster. Before each command the number of queued queries is read from STV_WLM_QUERY_STATE. While queries are
+ * queued the limit is halved and commands over the limit wait with an exponential backoff, while the queue is empty
+ * the limit grows by one up to the configured maximum. A command is always allowed to run when no other command is
+ * running, so that the unload makes progress on a busy cluster.
+ */
+final class WlmThrottle {
+  private static final Logger LOG = LoggerFactory.getLogger(WlmThrottle.class);
+  private static final String QUEUED_QUERY = "select count(*) from stv_wlm_query_state where state like 'Queued%'";
+  private static final long INITIAL_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+  private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private final int maxConcurrency;
+  private int limit;
+  private int running;
+
+  WlmThrottle(int maxConcurrency) {
+    this.maxConcurrency = maxConcurrency;
+    this.limit = maxConcurrency;
+  }
+
+  /**
+   * Blocks until a command may run. The connection is used to read the WLM queue. Every successful call must be
+   * followed by a call to {@link #release()}.
+   */
+  void acquire(Connection conn) throws SQLException, InterruptedException {
+    long backoffMillis = INITIAL_BACKOFF_MILLIS;
+    while (!tryAcquire(countQueuedQueries(conn))) {
+      LOG.debug("Queries are queued in WLM, waiting {} ms before starting the next unload.", backoffMillis);
+      TimeUnit.MILLISECONDS.sleep(backoffMillis);
+      backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+    }
+  }
+
+  /**
+   * Adapts the limit to the number of queued queries, and takes a slot if one is free under the limit.
+   *
+   * @return whether a slot was taken
+   */
+  synchronized boolean tryAcquire(long queuedQueries) {
+    int previous = limit;
+    limit = queuedQueries > 0 ? Math.max(1, limit / 2) : Math.min(maxConcurrency, limit + 1);
+    if (limit != previous) {
+      LOG.info("{} queries are queued in WLM, concurrent unloads limited to {}.", queuedQueries, limit);
+    }
+    if (running < limit) {
+      running++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Frees the slot taken by {@link #acquire(Connection)}.
+   */
+  synchronized void release() {
+    running--;
+  }
+
+  synchronized int getLimit() {
+    return limit;
+  }
+
+  private static long countQueuedQueries(Connection conn) throws SQLException {
+    Statement stmt = conn.createStatement();
+    try {
+      ResultSet rs = stmt.executeQuery(QUEUED_QUERY);
+      return rs.next() ? rs.getLong(1) : 0L;
+    } finally {
+      stmt.close();
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.sql.Connection;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link ConnectionCache} and the reuse of its connections by {@link ConnectionPool}
+ */
+public class ConnectionCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private LocalRedshift redshift;
+
+  @Before
+  public void setUp() throws Exception {
+    redshift = new LocalRedshift(new LocalObjectStore(temporaryFolder.newFolder()));
+  }
+
+  @After
+  public void tearDown() {
+    redshift.close();
+  }
+
+  @Test
+  public void testReuseAcrossPools() throws Exception {
+    ConnectionCache cache = new ConnectionCache(4, TimeUnit.MINUTES.toMillis(5), TimeUnit.SECONDS.toMillis(5));
+    try {
+      ConnectionPool pool = new ConnectionPool(redshift.getUrl(), properties("user", "secret"), 2, null, cache);
+      pool.release(pool.acquire());
+      pool.close();
+      Assert.assertEquals(1, cache.getIdleCount());
+
+      ConnectionPool nextPool = new ConnectionPool(redshift.getUrl(), properties("user", "secret"), 2, null, cache);
+      nextPool.release(nextPool.acquire());
+      nextPool.close();
+      Assert.assertEquals(1, nextPool.getCacheHits());
+      Assert.assertEquals(0, nextPool.getCacheMisses());
+      Assert.assertEquals(1, redshift.getConnectionCount());
+
+      // connections are not shared between users, passwords or query groups
+      ConnectionPool otherPool = new ConnectionPool(redshift.getUrl(), properties("user", "other"), 2, null, cache);
+      otherPool.release(otherPool.acquire());
+      ConnectionPool groupPool = new ConnectionPool(redshift.getUrl(), properties("user", "secret"), 2, "etl", cache);
+      groupPool.release(groupPool.acquire());
+      Assert.assertEquals(3, redshift.getConnectionCount());
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testMaxIdle() throws Exception {
+    ConnectionCache cache = new ConnectionCache(1, TimeUnit.MINUTES.toMillis(5), TimeUnit.SECONDS.toMillis(5));
+    try {
+      ConnectionPool pool = new ConnectionPool(redshift.getUrl(), properties("user", "secret"), 2, null, cache);
+      Connection conn1 = pool.acquire();
+      Connection conn2 = pool.acquire();
+      pool.release(conn1);
+      pool.release(conn2);
+      Assert.assertEquals(1, cache.getIdleCount());
+      Assert.assertFalse(conn1.isClosed());
+      Assert.assertTrue(conn2.isClosed());
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testIdleEviction() throws Exception {
+    ConnectionCache cache = new ConnectionCache(4, TimeUnit.HOURS.toMillis(1), 0);
+    Connection conn = newPool(cache).acquire();
+    cache.put("key", conn);
+    cache.evictIdle();
+    Assert.assertEquals(1, cache.getIdleCount());
+    cache.close();
+    Assert.assertTrue(conn.isClosed());
+
+    cache = new ConnectionCache(4, 1, 0);
+    try {
+      conn = newPool(cache).acquire();
+      cache.put("key", conn);
+      Thread.sleep(10);
+      cache.evictIdle();
+      Assert.assertEquals(0, cache.getIdleCount());
+      // the reaper may have taken the connection first, and closes it after taking it
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+      while (!conn.isClosed() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      Assert.assertTrue(conn.isClosed());
+    } finally {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testReaperStopsWhenEmpty() throws Exception {
+    ConnectionCache cache = new ConnectionCache(4, 1, 0);
+    try {
+      Assert.assertFalse(cache.isReaping());
+      Connection conn = newPool(cache).acquire();
+      cache.put("key", conn);
+      Assert.assertTrue(cache.isReaping());
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+      while (cache.isReaping() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      Assert.assertFalse(cache.isReaping());
+      Assert.assertEquals(0, cache.getIdleCount());
+      Assert.assertTrue(conn.isClosed());
+
+      // the next connection returned to the cache starts the reaper again
+      cache.put("key", newPool(cache).acquire());
+      Assert.assertTrue(cache.isReaping());
+    } finally {
+      cache.close();
+    }
+    Assert.assertFalse(cache.isReaping());
+  }
+
+  @Test
+  public void testInvalidConnectionIsSkipped() throws Exception {
+    ConnectionCache cache = new ConnectionCache(4, TimeUnit.HOURS.toMillis(1), 0);
+    try {
+      Connection conn = newPool(cache).acquire();
+      cache.put("key", conn);
+      conn.close();
+      Assert.assertNull(cache.take("key"));
+      Assert.assertEquals(0, cache.getIdleCount());
+    } finally {
+      cache.close();
+    }
+  }
+
+  private ConnectionPool newPool(ConnectionCache cache) {
+    return new ConnectionPool(redshift.getUrl(), properties("user", "secret"), 1, null, cache);
+  }
+
+  private static Properties properties(String user, String password) {
+    Properties properties = new Properties();
+    properties.setProperty("user", user);
+    properties.setProperty("password", password);
+    return properties;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for {@link DirectFetch}
+ */
+public class DirectFetchTest {
+
+  @Test
+  public void testText() {
+    DirectFetch fetch = new DirectFetch(false, null, false, false, false);
+    Assert.assertEquals("1|a b||t\n", fetch.formatRow(Arrays.asList("1", "a b", null, "t")));
+  }
+
+  @Test
+  public void testTextWithQuotesAndEscape() {
+    DirectFetch fetch = new DirectFetch(false, ",", true, true, false);
+    Assert.assertEquals("\"1\",\"a\\,b\\\\c\\\"\"\n", fetch.formatRow(Arrays.asList("1", "a,b\\c\"")));
+  }
+
+  @Test
+  public void testCsv() {
+    DirectFetch fetch = new DirectFetch(true, null, false, false, false);
+    Assert.assertEquals("1,\"a,b\",\"say \"\"hi\"\"\",\n",
+                        fetch.formatRow(Arrays.asList("1", "a,b", "say \"hi\"", null)));
+  }
+
+  @Test
+  public void testPath() {
+    Assert.assertEquals("s3://bucket/lookup/0000_part_00.gz",
+                        new DirectFetch(false, null, false, false, true).getPath("s3://bucket/lookup/"));
+    Assert.assertEquals("s3://bucket/lookup_0000_part_00",
+                        new DirectFetch(true, null, false, false, false).getPath("s3://bucket/lookup_"));
+  }
+
+  @Test
+  public void testFetchSize() {
+    Assert.assertEquals(100000, DirectFetch.getFetchSize(8));
+    Assert.assertEquals(8192, DirectFetch.getFetchSize(1024));
+    Assert.assertEquals(100, DirectFetch.getFetchSize(1024 * 1024));
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link IncrementalUnload} and the {@link StateStore}s that keep its high-water mark.
+ */
+public class IncrementalUnloadTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testFirstDelta() {
+    Assert.assertEquals("select * from (select * from t) as q where updated_at <= '2020-01-01 10:00:00'",
+                        IncrementalUnload.buildDeltaQuery("select * from t", "updated_at", null,
+                                                          "2020-01-01 10:00:00"));
+  }
+
+  @Test
+  public void testNextDelta() {
+    Assert.assertEquals("select * from (select * from t) as q where id > '100' and id <= '250'",
+                        IncrementalUnload.buildDeltaQuery("select * from t", "id", "100", "250"));
+  }
+
+  @Test
+  public void testEmptyDelta() {
+    Assert.assertEquals("select * from (select * from t) as q where 1 = 0",
+                        IncrementalUnload.buildDeltaQuery("select * from t", "id", "100", null));
+  }
+
+  @Test
+  public void testMarkIsQuoted() {
+    Assert.assertEquals("select * from (select * from t) as q where name > 'O''Brien' and name <= 'Smith'",
+                        IncrementalUnload.buildDeltaQuery("select * from t", "name", "O'Brien", "Smith"));
+  }
+
+  @Test
+  public void testFileStateStore() throws IOException {
+    StateStore store = new FileStateStore(temporaryFolder.newFolder());
+    Assert.assertNull(store.get(IncrementalUnload.WATERMARK_KEY));
+    store.put(IncrementalUnload.WATERMARK_KEY, "100");
+    Assert.assertEquals("100", store.get(IncrementalUnload.WATERMARK_KEY));
+    store.put(IncrementalUnload.WATERMARK_KEY, "250");
+    Assert.assertEquals("250", store.get(IncrementalUnload.WATERMARK_KEY));
+  }
+
+  @Test
+  public void testObjectStoreStateStore() throws IOException {
+    StateStore store = new ObjectStoreStateStore(new LocalObjectStore(temporaryFolder.newFolder()),
+                                                 "s3://bucket/sales/_state");
+    Assert.assertNull(store.get(IncrementalUnload.WATERMARK_KEY));
+    store.put(IncrementalUnload.WATERMARK_KEY, "2020-01-01 10:00:00");
+    Assert.assertEquals("2020-01-01 10:00:00", store.get(IncrementalUnload.WATERMARK_KEY));
+  }
+}
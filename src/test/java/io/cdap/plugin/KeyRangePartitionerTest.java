@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for {@link KeyRangePartitioner}
+ */
+public class KeyRangePartitionerTest {
+
+  @Test
+  public void testNumericBoundaries() {
+    Assert.assertEquals(Arrays.asList("25", "50", "75"),
+                        KeyRangePartitioner.numericBoundaries(BigDecimal.ZERO, BigDecimal.valueOf(100), 4, true));
+    Assert.assertEquals(Arrays.asList("0.5"),
+                        KeyRangePartitioner.numericBoundaries(BigDecimal.ZERO, BigDecimal.ONE, 2, false));
+  }
+
+  @Test
+  public void testNumericBoundariesOnNarrowRange() {
+    // boundaries are rounded down for integral columns and never repeated
+    Assert.assertEquals(Arrays.asList("1"),
+                        KeyRangePartitioner.numericBoundaries(BigDecimal.ZERO, BigDecimal.valueOf(2), 8, true));
+    Assert.assertEquals(Collections.<String>emptyList(),
+                        KeyRangePartitioner.numericBoundaries(BigDecimal.TEN, BigDecimal.TEN, 8, true));
+  }
+
+  @Test
+  public void testRangeQueries() {
+    List<String> queries = KeyRangePartitioner.buildRangeQueries("select * from t", "id", Arrays.asList("10", "20"),
+                                                                 false);
+    Assert.assertEquals(Arrays.asList(
+      "select * from (select * from t) as q where id < 10 or id is null",
+      "select * from (select * from t) as q where id >= 10 and id < 20",
+      "select * from (select * from t) as q where id >= 20"), queries);
+  }
+
+  @Test
+  public void testUpperInclusiveRangeQueries() {
+    List<String> queries = KeyRangePartitioner.buildRangeQueries("select * from t", "d",
+                                                                 Arrays.asList("'2020-01-01'"), true);
+    Assert.assertEquals(Arrays.asList(
+      "select * from (select * from t) as q where d <= '2020-01-01' or d is null",
+      "select * from (select * from t) as q where d > '2020-01-01'"), queries);
+  }
+
+  @Test
+  public void testNoBoundaries() {
+    Assert.assertEquals(Collections.singletonList("select * from t"),
+                        KeyRangePartitioner.buildRangeQueries("select * from t", "id",
+                                                              Collections.<String>emptyList(), false));
+  }
+}
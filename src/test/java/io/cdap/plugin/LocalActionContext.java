@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import io.cdap.cdap.etl.api.FailureCollector;
+import io.cdap.cdap.etl.api.StageMetrics;
+import io.cdap.cdap.etl.api.action.ActionContext;
+import io.cdap.cdap.etl.api.action.SettableArguments;
+import io.cdap.cdap.etl.mock.common.MockPipelineConfigurer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ActionContext} for running an action in tests, which records the runtime arguments and metrics it sets.
+ */
+public class LocalActionContext {
+  private final Map<String, String> arguments = new ConcurrentHashMap<>();
+  private final Map<String, Long> metrics = new ConcurrentHashMap<>();
+  private final FailureCollector collector = new MockPipelineConfigurer(null).getStageConfigurer()
+    .getFailureCollector();
+
+  public ActionContext getContext() {
+    final SettableArguments settableArguments = (SettableArguments) Proxy.newProxyInstance(
+      getClass().getClassLoader(), new Class<?>[] { SettableArguments.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          switch (method.getName()) {
+            case "has":
+              return arguments.containsKey(args[0]);
+            case "get":
+              return arguments.get(args[0]);
+            case "set":
+              arguments.put((String) args[0], (String) args[1]);
+              return null;
+            case "asMap":
+              return arguments;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        }
+      });
+    final StageMetrics stageMetrics = (StageMetrics) Proxy.newProxyInstance(
+      getClass().getClassLoader(), new Class<?>[] { StageMetrics.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          String name = (String) args[0];
+          long value = ((Number) args[1]).longValue();
+          synchronized (metrics) {
+            if (method.getName().toLowerCase().endsWith("count")) {
+              Long count = metrics.get(name);
+              value += count == null ? 0L : count;
+            }
+            metrics.put(name, value);
+          }
+          return null;
+        }
+      });
+    return (ActionContext) Proxy.newProxyInstance(
+      getClass().getClassLoader(), new Class<?>[] { ActionContext.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          switch (method.getName()) {
+            case "getArguments":
+              return settableArguments;
+            case "getMetrics":
+              return stageMetrics;
+            case "getFailureCollector":
+              return collector;
+            case "getStageName":
+              return RedshiftToS3Action.PLUGIN_NAME;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        }
+      });
+  }
+
+  /**
+   * Returns the runtime arguments set by the action.
+   */
+  public Map<String, String> getArguments() {
+    return arguments;
+  }
+
+  /**
+   * Returns the counts and gauges emitted by the action, counts summed up and gauges at their last value.
+   */
+  public Map<String, Long> getMetrics() {
+    return metrics;
+  }
+}
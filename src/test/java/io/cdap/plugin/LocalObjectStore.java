@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * {@link ObjectStore} that stands in for S3 in tests. The object {@code s3://bucket/key} is stored in the file
+ * {@code <root>/bucket/key}.
+ */
+public class LocalObjectStore implements ObjectStore {
+  private final File root;
+
+  public LocalObjectStore(File root) {
+    this.root = root;
+  }
+
+  /**
+   * Returns the local file that stores the object at the given S3 path.
+   */
+  public File getFile(String path) {
+    URI uri = URI.create(path);
+    return new File(new File(root, uri.getHost()), uri.getPath());
+  }
+
+  @Override
+  public InputStream open(String path) throws IOException {
+    return new FileInputStream(getFile(path));
+  }
+
+  @Override
+  public OutputStream create(String path) throws IOException {
+    File file = getFile(path);
+    File parent = file.getParentFile();
+    if (!parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("Failed to create directory " + parent);
+    }
+    return new FileOutputStream(file);
+  }
+
+  @Override
+  public boolean exists(String path) {
+    return getFile(path).isFile();
+  }
+
+  @Override
+  public SortedMap<String, Long> list(String prefix) {
+    URI uri = URI.create(prefix);
+    String bucket = uri.getHost();
+    String keyPrefix = uri.getPath().startsWith("/") ? uri.getPath().substring(1) : uri.getPath();
+    SortedMap<String, Long> objects = new TreeMap<>();
+    File bucketDir = new File(root, bucket);
+    if (bucketDir.isDirectory()) {
+      list(bucketDir, "", bucket, keyPrefix, objects);
+    }
+    return objects;
+  }
+
+  @Override
+  public void delete(String path) throws IOException {
+    File file = getFile(path);
+    if (file.exists() && !file.delete()) {
+      throw new IOException("Failed to delete " + file);
+    }
+  }
+
+  private static void list(File dir, String keyPrefix, String bucket, String prefix, SortedMap<String, Long> objects) {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      String key = keyPrefix + file.getName();
+      if (file.isDirectory()) {
+        list(file, key + "/", bucket, prefix, objects);
+      } else if (key.startsWith(prefix)) {
+        objects.put("s3://" + bucket + "/" + key, file.length());
+      }
+    }
+  }
+}
@@ -0,0 +1,757 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.base.Strings;
+import com.google.common.io.CountingOutputStream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stands in for a Redshift cluster in tests. Connections to its {@link #getUrl() URL} are served by a JDBC driver
+ * that runs UNLOAD commands by writing simulated slice files to an {@link ObjectStore}, such as a
+ * {@link LocalObjectStore}, and that answers the system table queries of the action.
+ * <p>
+ * Every UNLOAD writes {@code rowsPerSlice} rows of {@code rowWidth} bytes on each slice, into one file per slice, or
+ * into a single file with PARALLEL OFF, split into parts by MAXFILESIZE. GZIP output is compressed, BZIP2, ZSTD and
+ * PARQUET output only get the extension. PARTITION BY is not simulated. The latency of opening a connection and of
+ * running an UNLOAD can be set to model a remote cluster, and UNLOAD commands can be made to lose part of their
+ * output or to fail after writing it. The result of the query has the columns {@code id} and {@code payload}.
+ */
+public class LocalRedshift implements Closeable {
+  private static final String URL_PREFIX = "jdbc:localredshift://";
+  private static final Map<String, LocalRedshift> CLUSTERS = new ConcurrentHashMap<>();
+  private static final AtomicInteger NEXT_CLUSTER_ID = new AtomicInteger();
+  private static final Pattern UNLOAD_PATTERN = Pattern.compile("\\) to '([^']*)'(.*)$", Pattern.DOTALL);
+  private static final Pattern MAX_FILE_SIZE_PATTERN = Pattern.compile("maxfilesize (\\d+) mb");
+  private static final String CANCELED_SQL_STATE = "57014";
+
+  static {
+    try {
+      DriverManager.registerDriver(new LocalDriver());
+    } catch (SQLException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final String name;
+  private final ObjectStore store;
+  private final AtomicLong nextQueryId = new AtomicLong(1000);
+  private final AtomicInteger nextPid = new AtomicInteger(100);
+  private final Map<Long, List<UnloadedFile>> unloadLog = new ConcurrentHashMap<>();
+  private final AtomicInteger connectionCount = new AtomicInteger();
+  private final AtomicInteger unloadCount = new AtomicInteger();
+  private volatile int slices = 4;
+  private volatile long rowsPerSlice = 1000;
+  private volatile int rowWidth = 100;
+  private volatile long connectLatencyMillis;
+  private volatile long unloadLatencyMillis;
+  private volatile long countLatencyMillis;
+  private volatile double sliceSkew = 1.0;
+  private int truncatedUnloads;
+  private int failedUnloads;
+  private String failedUnloadSqlState;
+
+  public LocalRedshift(ObjectStore store) {
+    this.name = "local" + NEXT_CLUSTER_ID.incrementAndGet();
+    this.store = store;
+    CLUSTERS.put(name, this);
+  }
+
+  /**
+   * Returns the JDBC URL of the cluster, in the form of a Redshift cluster URL.
+   */
+  public String getUrl() {
+    return URL_PREFIX + name + ".local.us-east-1.redshift.amazonaws.com:5439/dev";
+  }
+
+  public LocalRedshift setSlices(int slices) {
+    this.slices = slices;
+    return this;
+  }
+
+  public LocalRedshift setRowsPerSlice(long rowsPerSlice) {
+    this.rowsPerSlice = rowsPerSlice;
+    return this;
+  }
+
+  /**
+   * Sets the size of a row in the unloaded files, including the delimiter and the line terminator.
+   */
+  public LocalRedshift setRowWidth(int rowWidth) {
+    this.rowWidth = rowWidth;
+    return this;
+  }
+
+  public LocalRedshift setConnectLatencyMillis(long connectLatencyMillis) {
+    this.connectLatencyMillis = connectLatencyMillis;
+    return this;
+  }
+
+  public LocalRedshift setUnloadLatencyMillis(long unloadLatencyMillis) {
+    this.unloadLatencyMillis = unloadLatencyMillis;
+    return this;
+  }
+
+  /**
+   * Sets the time it takes to count the rows of the query result.
+   */
+  public LocalRedshift setCountLatencyMillis(long countLatencyMillis) {
+    this.countLatencyMillis = countLatencyMillis;
+    return this;
+  }
+
+  /**
+   * Sets the time of the slowest slice of an UNLOAD divided by the average slice time.
+   */
+  public LocalRedshift setSliceSkew(double sliceSkew) {
+    this.sliceSkew = sliceSkew;
+    return this;
+  }
+
+  /**
+   * Sets the number of the next UNLOAD commands whose last file is emptied after it was recorded in STL_UNLOAD_LOG,
+   * as if its upload to S3 had been cut short.
+   */
+  public synchronized LocalRedshift setTruncatedUnloads(int truncatedUnloads) {
+    this.truncatedUnloads = truncatedUnloads;
+    return this;
+  }
+
+  /**
+   * Sets the number of the next UNLOAD commands that fail with the given SQLState after writing their files and one
+   * more part, as if the connection had been lost while the last part was written.
+   */
+  public synchronized LocalRedshift setFailedUnloads(int failedUnloads, String sqlState) {
+    this.failedUnloads = failedUnloads;
+    this.failedUnloadSqlState = sqlState;
+    return this;
+  }
+
+  private synchronized String fail() {
+    if (failedUnloads > 0) {
+      failedUnloads--;
+      return failedUnloadSqlState;
+    }
+    return null;
+  }
+
+  private synchronized boolean truncate() {
+    if (truncatedUnloads > 0) {
+      truncatedUnloads--;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of connections opened to the cluster.
+   */
+  public int getConnectionCount() {
+    return connectionCount.get();
+  }
+
+  /**
+   * Returns the number of UNLOAD commands run by the cluster.
+   */
+  public int getUnloadCount() {
+    return unloadCount.get();
+  }
+
+  /**
+   * Returns the number of rows of the query result.
+   */
+  public long getRowCount() {
+    return slices * rowsPerSlice;
+  }
+
+  @Override
+  public void close() {
+    CLUSTERS.remove(name);
+  }
+
+  private Connection connect() throws SQLException {
+    sleep(connectLatencyMillis, null);
+    connectionCount.incrementAndGet();
+    return (Connection) newProxy(Connection.class, new LocalConnection(nextPid.incrementAndGet()));
+  }
+
+  /**
+   * Runs a statement and returns its result, or {@code null} if it has none.
+   */
+  private ResultSet execute(LocalConnection conn, LocalStatement stmt, String sql,
+                            Map<Integer, Object> parameters) throws SQLException {
+    String lowerSql = sql.trim().toLowerCase(Locale.ROOT);
+    if (lowerSql.startsWith("unload")) {
+      conn.lastQueryId = unload(sql, stmt);
+      return null;
+    }
+    if (lowerSql.startsWith("set ")) {
+      return null;
+    }
+    if (lowerSql.contains("pg_backend_pid()")) {
+      return newResultSet(row(conn.pid));
+    }
+    if (lowerSql.contains("pg_last_query_id()")) {
+      return newResultSet(row(conn.lastQueryId));
+    }
+    if (lowerSql.contains("stl_unload_log")) {
+      List<Object[]> rows = new ArrayList<>();
+      List<UnloadedFile> files = unloadLog.get(((Number) parameters.get(1)).longValue());
+      for (UnloadedFile file : files == null ? Collections.<UnloadedFile>emptyList() : files) {
+        rows.add(row(file.getPath(), file.getRowCount(), file.getSize()));
+      }
+      return newResultSet(rows.toArray(new Object[rows.size()][]));
+    }
+    if (lowerSql.contains("stl_wlm_query ")) {
+      return newResultSet(row(0L, unloadLatencyMillis * 1000L));
+    }
+    if (lowerSql.contains("svl_query_report")) {
+      return newResultSet(row(sliceSkew, 1.0));
+    }
+    if (lowerSql.contains("pg_user")) {
+      return newResultSet(row(true));
+    }
+    if (lowerSql.contains("stv_inflight") || lowerSql.contains("svv_table_info")) {
+      return newResultSet();
+    }
+    if (lowerSql.contains("stv_wlm_query_state")) {
+      return newResultSet(row(0L));
+    }
+    if (lowerSql.contains("stv_slices")) {
+      return newResultSet(row(slices));
+    }
+    if (lowerSql.startsWith("explain")) {
+      return newResultSet(row(String.format("XN Seq Scan on t  (cost=0.00..1.00 rows=%d width=%d)",
+                                            getRowCount(), rowWidth)));
+    }
+    if (lowerSql.startsWith("select count(*) from (")) {
+      sleep(countLatencyMillis, stmt);
+      return newResultSet(row(getRowCount()));
+    }
+    if (lowerSql.startsWith("select min(")) {
+      return newResultSet(row(1L, getRowCount()));
+    }
+    if (lowerSql.endsWith("limit 0")) {
+      return newResultSet();
+    }
+    // the query itself
+    Object[][] rows = new Object[(int) getRowCount()][];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = row((long) i + 1, payload(i + 1));
+    }
+    return newResultSet(rows);
+  }
+
+  private long unload(String sql, LocalStatement stmt) throws SQLException {
+    Matcher matcher = UNLOAD_PATTERN.matcher(sql);
+    if (!matcher.find()) {
+      throw new SQLException("syntax error in UNLOAD command", "42601");
+    }
+    String path = matcher.group(1);
+    String options = matcher.group(2).toLowerCase(Locale.ROOT);
+    boolean parallel = !options.contains("parallel off");
+    String extension = "";
+    if (options.contains("format as parquet")) {
+      extension = ".parquet";
+    } else if (options.contains(" gzip")) {
+      extension = ".gz";
+    } else if (options.contains(" bzip2")) {
+      extension = ".bz2";
+    } else if (options.contains(" zstd")) {
+      extension = ".zst";
+    }
+    Matcher maxFileSize = MAX_FILE_SIZE_PATTERN.matcher(options);
+    long maxFileBytes = maxFileSize.find() ? Long.parseLong(maxFileSize.group(1)) * 1024 * 1024 : Long.MAX_VALUE;
+
+    try {
+      if (!options.contains("allowoverwrite") && store.exists(path + "0000_part_00" + extension)) {
+        throw new SQLException("Specified unload destination on S3 is not empty. Consider using a different bucket " +
+                                 "/ prefix, manually removing the target files in S3, or using the ALLOWOVERWRITE " +
+                                 "option.", "XX000");
+      }
+      sleep(unloadLatencyMillis, stmt);
+      long queryId = nextQueryId.incrementAndGet();
+      List<UnloadedFile> files = new ArrayList<>();
+      long id = 1L;
+      for (int slice = 0; slice < (parallel ? slices : 1); slice++) {
+        long rows = parallel ? rowsPerSlice : getRowCount();
+        int part = 0;
+        while (rows > 0 || part == 0) {
+          String filePath = String.format("%s%04d_part_%02d%s", path, slice, part, extension);
+          CountingOutputStream counter = new CountingOutputStream(store.create(filePath));
+          OutputStream os = ".gz".equals(extension) ? new GZIPOutputStream(counter) : counter;
+          Writer writer = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+          long fileRows = 0L;
+          long fileBytes = 0L;
+          try {
+            while (rows > 0 && (fileRows == 0 || fileBytes + rowWidth <= maxFileBytes)) {
+              writer.write(String.valueOf(id));
+              writer.write('|');
+              writer.write(payload(id));
+              writer.write('\n');
+              id++;
+              rows--;
+              fileRows++;
+              fileBytes += rowWidth;
+            }
+          } finally {
+            writer.close();
+          }
+          files.add(new UnloadedFile(filePath, fileRows, counter.getCount()));
+          part++;
+        }
+      }
+      String failedSqlState = fail();
+      if (failedSqlState != null) {
+        OutputStream partial = store.create(String.format("%s%04d_part_00%s", path, slices, extension));
+        try {
+          partial.write("0|partial\n".getBytes(StandardCharsets.UTF_8));
+        } finally {
+          partial.close();
+        }
+        throw new SQLException("connection lost while writing to S3", failedSqlState);
+      }
+      if (truncate()) {
+        store.create(files.get(files.size() - 1).getPath()).close();
+      }
+      if (options.contains("manifest")) {
+        writeManifest(path + UnloadManifest.MANIFEST_SUFFIX, files);
+      }
+      unloadLog.put(queryId, files);
+      unloadCount.incrementAndGet();
+      return queryId;
+    } catch (IOException e) {
+      throw new SQLException("S3 error: " + e.getMessage(), "XX000", e);
+    }
+  }
+
+  private void writeManifest(String path, List<UnloadedFile> files) throws IOException {
+    Writer writer = new OutputStreamWriter(store.create(path), StandardCharsets.UTF_8);
+    try {
+      writer.write("{\"entries\": [\n");
+      long length = 0L;
+      long records = 0L;
+      for (int i = 0; i < files.size(); i++) {
+        UnloadedFile file = files.get(i);
+        writer.write(String.format("  {\"url\":\"%s\", \"meta\": { \"content_length\": %d, \"record_count\": %d }}%s\n",
+                                   file.getPath(), file.getSize(), file.getRowCount(),
+                                   i < files.size() - 1 ? "," : ""));
+        length += file.getSize();
+        records += file.getRowCount();
+      }
+      writer.write(String.format("],\n\"meta\": {\"content_length\": %d, \"record_count\": %d}\n}", length, records));
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * Returns the payload column of a row, sized so that the unloaded row has the configured width.
+   */
+  private String payload(long id) {
+    int length = Math.max(rowWidth - String.valueOf(id).length() - 2, 0);
+    return Strings.repeat("x", length);
+  }
+
+  /**
+   * Sleeps for the given time, failing like a cancelled query if the statement is cancelled meanwhile.
+   */
+  private static void sleep(long millis, LocalStatement stmt) throws SQLException {
+    long deadline = System.currentTimeMillis() + millis;
+    try {
+      while (System.currentTimeMillis() < deadline) {
+        if (stmt != null && stmt.cancelled) {
+          throw new SQLException("ERROR: Query cancelled on user's request", CANCELED_SQL_STATE);
+        }
+        Thread.sleep(Math.min(10L, Math.max(deadline - System.currentTimeMillis(), 1L)));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("ERROR: Query cancelled on user's request", CANCELED_SQL_STATE, e);
+    }
+  }
+
+  private static Object[] row(Object... values) {
+    return values;
+  }
+
+  private static ResultSet newResultSet(Object[]... rows) {
+    return (ResultSet) newProxy(ResultSet.class, new LocalResultSet(Arrays.asList(rows)));
+  }
+
+  private static Object newProxy(Class<?> type, Object handler) {
+    return Proxy.newProxyInstance(LocalRedshift.class.getClassLoader(), new Class<?>[] { type },
+                                  new Dispatcher(handler));
+  }
+
+  private static ResultSetMetaData newMetaData() {
+    return (ResultSetMetaData) newProxy(ResultSetMetaData.class, new LocalMetaData());
+  }
+
+  /**
+   * Forwards the calls of a JDBC interface proxy to the method of the same name and parameters of a handler object,
+   * and fails the methods that the handler does not implement.
+   */
+  private static final class Dispatcher implements InvocationHandler {
+    private final Object handler;
+
+    Dispatcher(Object handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      Method target;
+      try {
+        target = handler.getClass().getDeclaredMethod(method.getName(), method.getParameterTypes());
+      } catch (NoSuchMethodException e) {
+        if ("toString".equals(method.getName())) {
+          return handler.getClass().getSimpleName();
+        }
+        if ("hashCode".equals(method.getName())) {
+          return System.identityHashCode(proxy);
+        }
+        if ("equals".equals(method.getName())) {
+          return proxy == args[0];
+        }
+        throw new SQLFeatureNotSupportedException(method.getName() + " is not supported");
+      }
+      try {
+        target.setAccessible(true);
+        return target.invoke(handler, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+
+  /**
+   * Handles the calls to a {@link Connection}.
+   */
+  private final class LocalConnection {
+    private final int pid;
+    private long lastQueryId = -1L;
+    private boolean autoCommit = true;
+    private volatile boolean closed;
+
+    LocalConnection(int pid) {
+      this.pid = pid;
+    }
+
+    Statement createStatement() throws SQLException {
+      checkOpen();
+      return (Statement) newProxy(Statement.class, new LocalStatement(this, null));
+    }
+
+    Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+      return createStatement();
+    }
+
+    PreparedStatement prepareStatement(String sql) throws SQLException {
+      checkOpen();
+      return (PreparedStatement) newProxy(PreparedStatement.class, new LocalStatement(this, sql));
+    }
+
+    boolean getAutoCommit() {
+      return autoCommit;
+    }
+
+    void setAutoCommit(boolean autoCommit) {
+      this.autoCommit = autoCommit;
+    }
+
+    void commit() {
+    }
+
+    void rollback() {
+    }
+
+    boolean isValid(int timeout) {
+      return !closed;
+    }
+
+    boolean isClosed() {
+      return closed;
+    }
+
+    void close() {
+      closed = true;
+    }
+
+    private void checkOpen() throws SQLException {
+      if (closed) {
+        throw new SQLException("This connection has been closed.", "08003");
+      }
+    }
+  }
+
+  /**
+   * Handles the calls to a {@link Statement}, or to a {@link PreparedStatement} if it has SQL.
+   */
+  private final class LocalStatement {
+    private final LocalConnection conn;
+    private final String sql;
+    private final Map<Integer, Object> parameters = new HashMap<>();
+    private volatile boolean cancelled;
+    private ResultSet resultSet;
+
+    LocalStatement(LocalConnection conn, String sql) {
+      this.conn = conn;
+      this.sql = sql;
+    }
+
+    boolean execute(String sql) throws SQLException {
+      resultSet = LocalRedshift.this.execute(conn, this, sql, parameters);
+      return resultSet != null;
+    }
+
+    ResultSet executeQuery(String sql) throws SQLException {
+      ResultSet rs = LocalRedshift.this.execute(conn, this, sql, parameters);
+      return rs == null ? newResultSet() : rs;
+    }
+
+    int executeUpdate(String sql) throws SQLException {
+      LocalRedshift.this.execute(conn, this, sql, parameters);
+      return 0;
+    }
+
+    ResultSet executeQuery() throws SQLException {
+      return executeQuery(sql);
+    }
+
+    ResultSetMetaData getMetaData() {
+      return newMetaData();
+    }
+
+    ResultSet getResultSet() {
+      return resultSet;
+    }
+
+    void setLong(int index, long value) {
+      parameters.put(index, value);
+    }
+
+    void setInt(int index, int value) {
+      parameters.put(index, value);
+    }
+
+    void setString(int index, String value) {
+      parameters.put(index, value);
+    }
+
+    void setFetchSize(int rows) {
+    }
+
+    void setQueryTimeout(int seconds) {
+    }
+
+    void cancel() {
+      cancelled = true;
+    }
+
+    void close() {
+    }
+  }
+
+  /**
+   * Handles the calls to a {@link ResultSet} over rows held in memory.
+   */
+  private static final class LocalResultSet {
+    private final List<Object[]> rows;
+    private int index = -1;
+    private boolean wasNull;
+
+    LocalResultSet(List<Object[]> rows) {
+      this.rows = rows;
+    }
+
+    boolean next() {
+      index++;
+      return index < rows.size();
+    }
+
+    Object getObject(int column) {
+      Object value = rows.get(index)[column - 1];
+      wasNull = value == null;
+      return value;
+    }
+
+    String getString(int column) {
+      Object value = getObject(column);
+      return value == null ? null : value.toString();
+    }
+
+    long getLong(int column) {
+      Object value = getObject(column);
+      return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    int getInt(int column) {
+      Object value = getObject(column);
+      return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    double getDouble(int column) {
+      Object value = getObject(column);
+      return value == null ? 0.0 : ((Number) value).doubleValue();
+    }
+
+    BigDecimal getBigDecimal(int column) {
+      Object value = getObject(column);
+      return value == null ? null : new BigDecimal(value.toString());
+    }
+
+    boolean getBoolean(int column) {
+      Object value = getObject(column);
+      return value != null && (Boolean) value;
+    }
+
+    boolean wasNull() {
+      return wasNull;
+    }
+
+    ResultSetMetaData getMetaData() {
+      return newMetaData();
+    }
+
+    void close() {
+    }
+  }
+
+  /**
+   * Handles the calls to the {@link ResultSetMetaData} of the query result: a non-null {@code id} BIGINT column and a
+   * nullable {@code payload} VARCHAR column.
+   */
+  private static final class LocalMetaData {
+    private static final String[] NAMES = { "id", "payload" };
+    private static final int[] TYPES = { Types.BIGINT, Types.VARCHAR };
+
+    int getColumnCount() {
+      return NAMES.length;
+    }
+
+    String getColumnLabel(int column) {
+      return NAMES[column - 1];
+    }
+
+    String getColumnName(int column) {
+      return NAMES[column - 1];
+    }
+
+    int getColumnType(int column) {
+      return TYPES[column - 1];
+    }
+
+    int getPrecision(int column) {
+      return column == 1 ? 19 : 65535;
+    }
+
+    int getScale(int column) {
+      return 0;
+    }
+
+    int isNullable(int column) {
+      return column == 1 ? ResultSetMetaData.columnNoNulls : ResultSetMetaData.columnNullable;
+    }
+  }
+
+  /**
+   * JDBC driver for the {@code jdbc:localredshift://} URLs of the registered clusters.
+   */
+  private static final class LocalDriver implements Driver {
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+      if (!acceptsURL(url)) {
+        return null;
+      }
+      String host = url.substring(URL_PREFIX.length());
+      LocalRedshift cluster = CLUSTERS.get(host.substring(0, host.indexOf('.')));
+      if (cluster == null) {
+        throw new SQLException("Connection refused: " + url, "08001");
+      }
+      return cluster.connect();
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+      return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+      return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+      return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+      return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+      return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+      throw new SQLFeatureNotSupportedException();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Unit tests for {@link QueryRewriter}
+ */
+public class QueryRewriterTest {
+
+  @Test
+  public void testParseProjection() {
+    Assert.assertEquals(Arrays.asList("id", "\"Sold At\"", "\"quoted\"", "\"a\"\"b\""),
+                        QueryRewriter.parseProjection(" id, Sold At,\"quoted\" ,a\"b,"));
+    Assert.assertEquals(Collections.<String>emptyList(), QueryRewriter.parseProjection(null));
+    Assert.assertEquals(Collections.<String>emptyList(), QueryRewriter.parseProjection(" , "));
+  }
+
+  @Test
+  public void testFilter() {
+    Assert.assertEquals("select * from (select * from sales) as f where (state = 'NV' -- nevada\n)",
+                        QueryRewriter.filter("select * from sales", " state = 'NV' -- nevada "));
+    Assert.assertEquals("select * from sales", QueryRewriter.filter("select * from sales", " "));
+    Assert.assertEquals("select * from sales", QueryRewriter.filter("select * from sales", null));
+  }
+
+  @Test
+  public void testProject() {
+    Assert.assertEquals("select id, \"Sold At\" from (select * from sales) as p",
+                        QueryRewriter.project("select * from sales", QueryRewriter.parseProjection("id,Sold At")));
+    Assert.assertEquals("select * from sales",
+                        QueryRewriter.project("select * from sales", Collections.<String>emptyList()));
+  }
+}
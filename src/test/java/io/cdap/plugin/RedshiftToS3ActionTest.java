@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Map;
+
+/**
+ * Runs {@link RedshiftToS3Action} against a {@link LocalRedshift} and a {@link LocalObjectStore}.
+ */
+public class RedshiftToS3ActionTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private LocalObjectStore store;
+  private LocalRedshift redshift;
+
+  @Before
+  public void setUp() throws Exception {
+    store = new LocalObjectStore(temporaryFolder.newFolder());
+    redshift = new LocalRedshift(store).setSlices(4).setRowsPerSlice(100).setRowWidth(50);
+  }
+
+  @After
+  public void tearDown() {
+    redshift.close();
+  }
+
+  @Test
+  public void testUnload() throws Exception {
+    Map<String, String> arguments = run(config().build());
+    Assert.assertEquals("s3a://bucket/sales/", arguments.get("filePath"));
+    Assert.assertEquals("400", arguments.get("filePath.records"));
+    Assert.assertEquals("4", arguments.get("filePath.fileCount"));
+    Assert.assertEquals("|", arguments.get("filePath.delimiter"));
+    Assert.assertTrue(arguments.get("filePath.schema").contains("payload"));
+    Assert.assertEquals(4, store.list("s3://bucket/sales/").size());
+    Assert.assertEquals(1, redshift.getUnloadCount());
+  }
+
+  @Test
+  public void testSliceSkewMetric() throws Exception {
+    LocalActionContext context = new LocalActionContext();
+    new RedshiftToS3Action(config().build(), store).run(context.getContext());
+    Assert.assertEquals(Long.valueOf(0), context.getMetrics().get("unload.slice.skew.percent"));
+
+    redshift.setSliceSkew(1.5);
+    context = new LocalActionContext();
+    new RedshiftToS3Action(config().setAllowOverWrite(true).build(), store).run(context.getContext());
+    Assert.assertEquals(Long.valueOf(50), context.getMetrics().get("unload.slice.skew.percent"));
+    Assert.assertEquals("1.50", context.getArguments().get("filePath.sliceSkew"));
+  }
+
+  @Test
+  public void testPartitionedUnloadWithManifest() throws Exception {
+    Map<String, String> arguments = run(config().setSplitColumn("id").setNumPartitions(3).setManifest(true)
+                                          .setCompression("GZIP").build());
+    Assert.assertEquals("s3a://bucket/sales/part=*/", arguments.get("filePath"));
+    Assert.assertEquals(12, arguments.get("filePath.files").split(",").length);
+    Assert.assertEquals("1200", arguments.get("filePath.records"));
+    Assert.assertEquals(3, redshift.getUnloadCount());
+    // the checkpoint is removed once all partitions are unloaded
+    Assert.assertTrue(store.list("s3://bucket/sales/_state/").isEmpty());
+  }
+
+  @Test
+  public void testCompaction() throws Exception {
+    Map<String, String> arguments = run(config().setCompactTargetSizeMB(1).build());
+    Assert.assertEquals("s3a://bucket/sales/compacted_0000", arguments.get("filePath.files"));
+    Assert.assertEquals("1", arguments.get("filePath.fileCount"));
+    Assert.assertEquals("400", arguments.get("filePath.records"));
+    Assert.assertEquals(store.list("s3://bucket/sales/").keySet().iterator().next(),
+                        "s3://bucket/sales/compacted_0000");
+    Assert.assertEquals(400 * 50, store.getFile("s3://bucket/sales/compacted_0000").length());
+  }
+
+  @Test
+  public void testRerunWithoutOverwriteFails() throws Exception {
+    run(config().build());
+    try {
+      run(config().build());
+      Assert.fail("Expected the unload to an existing path to fail");
+    } catch (IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage().contains("not empty"));
+    }
+    run(config().setAllowOverWrite(true).build());
+    Assert.assertEquals(2, redshift.getUnloadCount());
+  }
+
+  @Test
+  public void testDirectFetch() throws Exception {
+    Map<String, String> arguments = run(config().setDirectFetchThreshold(1024 * 1024).build());
+    Assert.assertEquals("400", arguments.get("filePath.records"));
+    Assert.assertEquals(400 * 50, store.getFile("s3://bucket/sales/0000_part_00").length());
+    Assert.assertEquals(0, redshift.getUnloadCount());
+  }
+
+  @Test
+  public void testConnectionReuse() throws Exception {
+    run(config().build());
+    int connections = redshift.getConnectionCount();
+    LocalActionContext context = new LocalActionContext();
+    new RedshiftToS3Action(config().setAllowOverWrite(true).build(), store).run(context.getContext());
+    Assert.assertEquals(connections, redshift.getConnectionCount());
+    Assert.assertEquals(Long.valueOf(0), context.getMetrics().get("connection.cache.misses"));
+    Assert.assertTrue(context.getMetrics().get("connection.cache.hits") > 0);
+  }
+
+  @Test
+  public void testVerifyUnloadsTruncatedOutputAgain() throws Exception {
+    redshift.setTruncatedUnloads(1);
+    Map<String, String> arguments = run(config().setSplitColumn("id").setNumPartitions(2).setVerify(true).build());
+    Assert.assertEquals("800", arguments.get("filePath.records"));
+    Assert.assertEquals(3, redshift.getUnloadCount());
+    for (Map.Entry<String, Long> object : store.list("s3://bucket/sales/").entrySet()) {
+      Assert.assertEquals(object.getKey(), 100 * 50, object.getValue().longValue());
+    }
+  }
+
+  @Test
+  public void testVerifyFailsOnTruncatedOutput() throws Exception {
+    redshift.setTruncatedUnloads(2);
+    try {
+      run(config().setVerify(true).build());
+      Assert.fail("Expected the verification of the truncated output to fail");
+    } catch (IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("failed verification"));
+    }
+    Assert.assertEquals(2, redshift.getUnloadCount());
+  }
+
+  @Test
+  public void testRetryDeletesPartialOutput() throws Exception {
+    redshift.setFailedUnloads(1, "08006");
+    Map<String, String> arguments = run(config().build());
+    Assert.assertEquals("400", arguments.get("filePath.records"));
+    Assert.assertEquals(4, store.list("s3://bucket/sales/").size());
+  }
+
+  @Test
+  public void testResumeDeletesPartialOutput() throws Exception {
+    redshift.setFailedUnloads(1, "XX000");
+    try {
+      run(config().setSplitColumn("id").setNumPartitions(2).setMaxConcurrency(1).build());
+      Assert.fail("Expected the unload to fail");
+    } catch (IllegalArgumentException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("connection lost"));
+    }
+    Assert.assertFalse(store.list("s3://bucket/sales/_state/").isEmpty());
+
+    Map<String, String> arguments = run(config().setSplitColumn("id").setNumPartitions(2).build());
+    Assert.assertEquals("800", arguments.get("filePath.records"));
+    Assert.assertEquals(8, store.list("s3://bucket/sales/part=").size());
+    Assert.assertEquals(2, redshift.getUnloadCount());
+  }
+
+  private RedshiftToS3Action.RedshiftToS3Config.Builder config() {
+    return RedshiftToS3Action.RedshiftToS3Config.builder()
+      .setIamRole("arn:aws:iam::123456789120:role/MyRole")
+      .setQuery("select * from sales")
+      .setS3DataPath("s3://bucket/sales/")
+      .setRedshiftClusterURL(redshift.getUrl())
+      .setRedshiftMasterUser("masterUser")
+      .setRedshiftMasterPassword("masterPassword");
+  }
+
+  private Map<String, String> run(RedshiftToS3Action.RedshiftToS3Config config) throws Exception {
+    LocalActionContext context = new LocalActionContext();
+    new RedshiftToS3Action(config, store).run(context.getContext());
+    return context.getArguments();
+  }
+}
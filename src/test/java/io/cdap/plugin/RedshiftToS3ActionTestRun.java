@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link RedshiftToS3Action} end to end against a {@link LocalRedshift} and a {@link LocalObjectStore},
+ * so that performance changes can be compared without a cluster. Every case reports the median wall time of
+ * {@code benchmark.iterations} runs (default 3) after a warm-up run.
+ * <p>
+ * The benchmark is not part of the regular build, since its name does not match the test includes of surefire. Run
+ * it with {@code mvn test -Dtest=RedshiftToS3ActionTestRun}.
+ */
+public class RedshiftToS3ActionTestRun {
+  private static final Logger LOG = LoggerFactory.getLogger(RedshiftToS3ActionTestRun.class);
+  private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 3);
+  private static final int ROW_WIDTH = 200;
+  private static final long MB = 1024L * 1024L;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private LocalObjectStore store;
+  private LocalRedshift redshift;
+  private int runs;
+
+  @Before
+  public void setUp() throws IOException {
+    store = new LocalObjectStore(temporaryFolder.newFolder());
+    redshift = new LocalRedshift(store).setRowWidth(ROW_WIDTH);
+  }
+
+  @After
+  public void tearDown() {
+    redshift.close();
+  }
+
+  /**
+   * Wall time of an unload with a manifest, including publishing its files from STL_UNLOAD_LOG, by number of files
+   * and size of the result.
+   */
+  @Test
+  public void testFileCountAndSize() throws Exception {
+    LOG.info("files | MB | ms | MB/s");
+    for (int files : new int[] { 4, 32, 256 }) {
+      for (long size : new long[] { 8 * MB, 64 * MB }) {
+        redshift.setSlices(files).setRowsPerSlice(size / files / ROW_WIDTH);
+        long millis = measure(config().setManifest(true));
+        LOG.info("{} | {} | {} | {}", files, size / MB, millis, throughput(size, millis));
+      }
+    }
+  }
+
+  /**
+   * Wall time of a partitioned unload to a cluster that takes 50 ms to open a connection, by max concurrency, and the
+   * number of connections the action opened per run.
+   */
+  @Test
+  public void testConnectionSetup() throws Exception {
+    redshift.setSlices(4).setRowsPerSlice(100).setConnectLatencyMillis(50).setUnloadLatencyMillis(100);
+    LOG.info("max concurrency | partitions | ms | connections per run");
+    for (int maxConcurrency : new int[] { 1, 4, 16 }) {
+      int connections = redshift.getConnectionCount();
+      long millis = measure(config().setSplitColumn("id").setNumPartitions(16).setMaxConcurrency(maxConcurrency));
+      LOG.info("{} | {} | {} | {}", maxConcurrency, 16, millis,
+               (redshift.getConnectionCount() - connections) / (ITERATIONS + 1));
+    }
+  }
+
+  /**
+   * Throughput of compacting the unloaded files, by number of files, compared to the unload without compaction.
+   */
+  @Test
+  public void testCompaction() throws Exception {
+    long size = 64 * MB;
+    LOG.info("files | compression | ms without compaction | ms with compaction | compaction MB/s");
+    for (int files : new int[] { 32, 256 }) {
+      for (String compression : new String[] { "NONE", "GZIP" }) {
+        redshift.setSlices(files).setRowsPerSlice(size / files / ROW_WIDTH);
+        long plain = measure(config().setCompression(compression));
+        long compacted = measure(config().setCompression(compression).setCompactTargetSizeMB(16));
+        LOG.info("{} | {} | {} | {} | {}", files, compression, plain, compacted,
+                 throughput(size, Math.max(compacted - plain, 1L)));
+      }
+    }
+  }
+
+  /**
+   * Returns the median wall time of running the action, in milliseconds. Every run unloads to a new path, which is
+   * deleted afterwards.
+   */
+  private long measure(RedshiftToS3Action.RedshiftToS3Config.Builder config) throws Exception {
+    List<Long> times = new ArrayList<>();
+    for (int i = 0; i <= ITERATIONS; i++) {
+      String s3Path = "s3://bucket/run" + runs++ + "/";
+      RedshiftToS3Action action = new RedshiftToS3Action(config.setS3DataPath(s3Path).build(), store);
+      long start = System.nanoTime();
+      action.run(new LocalActionContext().getContext());
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      // the first run warms up the JVM
+      if (i > 0) {
+        times.add(elapsed);
+      }
+      for (String path : store.list(s3Path).keySet()) {
+        store.delete(path);
+      }
+    }
+    Collections.sort(times);
+    return times.get(times.size() / 2);
+  }
+
+  private static String throughput(long bytes, long millis) {
+    return String.format("%.1f", bytes / (double) MB / Math.max(millis, 1L) * 1000);
+  }
+
+  private RedshiftToS3Action.RedshiftToS3Config.Builder config() {
+    return RedshiftToS3Action.RedshiftToS3Config.builder()
+      .setIamRole("arn:aws:iam::123456789120:role/MyRole")
+      .setQuery("select * from sales")
+      .setRedshiftClusterURL(redshift.getUrl())
+      .setRedshiftMasterUser("masterUser")
+      .setRedshiftMasterPassword("masterPassword");
+  }
+}
@@ -22,6 +22,8 @@ import io.cdap.cdap.etl.mock.common.MockPipelineConfigurer;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.List;
+
 
 /**
  * Unit tests for {@link io.cdap.plugin.RedshiftToS3Action.RedshiftToS3Config}
@@ -31,6 +33,12 @@ public class RedshiftToS3ConfigTest {
   private static final String ACCESS_KEY = "accessKey";
   private static final String SECRET_ACCESS_KEY = "secretAccessKey";
   private static final String QUERY = "query";
+  private static final String SPLIT_COLUMN = "splitColumn";
+  private static final String NUM_PARTITIONS = "numPartitions";
+  private static final String FORMAT = "format";
+  private static final String DELIMITER = "delimiter";
+  private static final String COMPRESSION = "compression";
+  private static final String ADD_QUOTES = "addQuotes";
 
   @Test
   public void testIfBothKeysAndRoleIsNotPresent() {
@@ -127,4 +135,245 @@ public class RedshiftToS3ConfigTest {
     Assert.assertEquals(QUERY, collector.getValidationFailures().get(0).getCauses().get(0)
       .getAttribute(CauseAttributes.STAGE_CONFIG));
   }
+
+  @Test
+  public void testPartitionsWithoutSplitColumn() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setNumPartitions(8).build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals(SPLIT_COLUMN, collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testInvalidNumPartitions() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setSplitColumn("id").setNumPartitions(0).build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals(NUM_PARTITIONS, collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testValidPartitionedConfig() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setSplitColumn("id").setNumPartitions(8)
+      .setMaxConcurrency(4).build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(0, collector.getValidationFailures().size());
+  }
+
+  @Test
+  public void testParquetWithTextOptions() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setFormat("parquet").setDelimiter(",")
+      .setCompression("GZIP").build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(2, collector.getValidationFailures().size());
+    Assert.assertEquals(DELIMITER, collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+    Assert.assertEquals(COMPRESSION, collector.getValidationFailures().get(1).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testCsvWithAddQuotes() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setFormat("CSV").setAddQuotes(true).build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals(ADD_QUOTES, collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testUnsupportedFormat() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setFormat("orc").build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals(FORMAT, collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testValidParquetConfig() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setFormat("PARQUET").setCompression("NONE").build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(0, collector.getValidationFailures().size());
+  }
+
+  @Test
+  public void testCacheWithIncremental() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setCachePath("s3://mybucket/cache/")
+      .setIncrementalColumn("updated_at").build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals("cachePath", collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testInvalidStatementTimeout() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setStatementTimeoutMinutes(0).build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals("statementTimeoutMinutes", collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testInvalidTargetFileSize() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setAutoTune(true).setTargetFileSizeMB(1).build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals("targetFileSizeMB", collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testValidBatch() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setOutputPathToken("orders").setBatch(
+      "[{\"query\": \"select * from sales\", \"s3DataPath\": \"s3://mybucket/sales/\", " +
+        "\"outputPathToken\": \"sales\"}]").build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(0, collector.getValidationFailures().size());
+
+    List<BatchEntry> batch = config.getBatch();
+    Assert.assertEquals(1, batch.size());
+    Assert.assertEquals("select * from sales", batch.get(0).getQuery());
+    Assert.assertEquals("s3://mybucket/sales/", batch.get(0).getS3DataPath());
+    Assert.assertEquals("sales", batch.get(0).getOutputPathToken());
+  }
+
+  @Test
+  public void testBatchWithDuplicateToken() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setOutputPathToken("sales").setBatch(
+      "[{\"query\": \"select * from sales\", \"s3DataPath\": \"s3://mybucket/sales/\", " +
+        "\"outputPathToken\": \"sales\"}]").build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals("batch", collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testBatchWithMissingPath() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig()
+      .setBatch("[{\"query\": \"select * from sales\", \"outputPathToken\": \"sales\"}]").build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals("batch", collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testDirectFetchWithParquet() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setFormat("PARQUET").setCompression("NONE")
+      .setDirectFetchThreshold(1024 * 1024).build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals("directFetchThreshold", collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testCompactionWithParquet() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setFormat("PARQUET").setCompression("NONE")
+      .setCompactTargetSizeMB(128).build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals("compactTargetSizeMB", collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testProjectionWithoutPartitionColumn() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setPartitionBy("dt,region")
+      .setProjection("id, DT").build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals("projection", collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testFilterWithSemicolon() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setFilter("1 = 1; drop table sales").build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals("filter", collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+  }
+
+  @Test
+  public void testStateLocationScheme() {
+    RedshiftToS3Action.RedshiftToS3Config config = validConfig().setIncrementalColumn("id")
+      .setWatermarkPath("s3a://mybucket/state/").build();
+    MockPipelineConfigurer configurer = new MockPipelineConfigurer(null);
+    FailureCollector collector = configurer.getStageConfigurer().getFailureCollector();
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(1, collector.getValidationFailures().size());
+    Assert.assertEquals("watermarkPath", collector.getValidationFailures().get(0).getCauses().get(0)
+      .getAttribute(CauseAttributes.STAGE_CONFIG));
+
+    config = validConfig().setIncrementalColumn("id").setWatermarkPath("file:///tmp/state/").build();
+    configurer = new MockPipelineConfigurer(null);
+    new RedshiftToS3Action(config).configurePipeline(configurer);
+    Assert.assertEquals(0, configurer.getStageConfigurer().getFailureCollector().getValidationFailures().size());
+  }
+
+  @Test
+  public void testQueryEscaping() {
+    // queries written for the UNLOAD command, as in earlier versions, are unescaped for the other statements
+    RedshiftToS3Action.RedshiftToS3Config config =
+      validConfig().setQuery("select * from t where state = ''NV'' or name = \\'O\\'\\'Brien\\'").build();
+    Assert.assertEquals("select * from t where state = 'NV' or name = 'O''Brien'", config.getQuery());
+    Assert.assertEquals("select * from t where state = ''NV'' or name = ''O''''Brien''",
+                        RedshiftToS3Action.escapeQuery(config.getQuery()));
+
+    config = validConfig().setQuery("select * from t where state = 'NV'").setEscapeQuery(true).build();
+    Assert.assertEquals("select * from t where state = 'NV'", config.getQuery());
+    Assert.assertEquals("select * from t where state = ''NV''", RedshiftToS3Action.escapeQuery(config.getQuery()));
+  }
+
+  private static RedshiftToS3Action.RedshiftToS3Config.Builder validConfig() {
+    return RedshiftToS3Action.RedshiftToS3Config.builder()
+      .setIamRole("arn:aws:iam::123456789120:role/MyRole")
+      .setQuery("select * from testTable")
+      .setS3DataPath("s3://mybucket/test/redshift_")
+      .setRedshiftClusterURL("jdbc:redshift://x.y.us-west-1.redshift.amazonaws.com:5439/dev")
+      .setRedshiftMasterUser("masterUser")
+      .setRedshiftMasterPassword("masterPassword");
+  }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for {@link ResultCache} and {@link TableState}.
+ */
+public class ResultCacheTest {
+  private static final Map<String, String> ARGUMENTS = ImmutableMap.of("", "s3a://bucket/out/*", ".format", "text");
+  private static final Map<String, Long> FILES = ImmutableMap.of("s3://bucket/out/0000_part_00", 100L);
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testNormalize() {
+    Assert.assertEquals("select * from t where name = 'A  B'",
+                        ResultCache.normalize("  SELECT *\n  FROM t\tWHERE name = 'A  B' ;"));
+  }
+
+  @Test
+  public void testFingerprint() {
+    String fingerprint = ResultCache.fingerprint("select * from t", "parallel off");
+    Assert.assertEquals(fingerprint, ResultCache.fingerprint("SELECT *  FROM t;", "parallel off"));
+    Assert.assertNotEquals(fingerprint, ResultCache.fingerprint("select * from t", "parallel off gzip"));
+    Assert.assertNotEquals(fingerprint, ResultCache.fingerprint("select * from t where a = 'X'", "parallel off"));
+  }
+
+  @Test
+  public void testGetAndPut() throws IOException {
+    ResultCache cache = newCache(1000, 10);
+    Assert.assertNull(cache.get("f1", "t:1", 0));
+    cache.put("f1", new ResultCache.Entry("t:1", "s3://bucket/out/", FILES, ARGUMENTS, 0), 0);
+
+    ResultCache.Entry entry = cache.get("f1", "t:1", 500);
+    Assert.assertNotNull(entry);
+    Assert.assertEquals("s3://bucket/out/", entry.getS3Prefix());
+    Assert.assertEquals(ARGUMENTS, entry.getArguments());
+
+    // a modified table or an expired entry is a miss
+    Assert.assertNull(cache.get("f1", "t:2", 500));
+    Assert.assertNull(cache.get("f1", "t:1", 1001));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction() throws IOException {
+    ResultCache cache = newCache(1000, 2);
+    cache.put("f1", new ResultCache.Entry("t:1", "s3://bucket/1/", FILES, ARGUMENTS, 0), 0);
+    cache.put("f2", new ResultCache.Entry("t:1", "s3://bucket/2/", FILES, ARGUMENTS, 10), 10);
+    cache.touch("f1", 20);
+    cache.put("f3", new ResultCache.Entry("t:1", "s3://bucket/3/", FILES, ARGUMENTS, 30), 30);
+
+    Assert.assertNotNull(cache.get("f1", "t:1", 40));
+    Assert.assertNull(cache.get("f2", "t:1", 40));
+    Assert.assertNotNull(cache.get("f3", "t:1", 40));
+  }
+
+  @Test
+  public void testPutEvictsEntriesOfSamePrefix() throws IOException {
+    ResultCache cache = newCache(1000, 10);
+    cache.put("f1", new ResultCache.Entry("t:1", "s3://bucket/out/", FILES, ARGUMENTS, 0), 0);
+    cache.put("f2", new ResultCache.Entry("t:1", "s3://bucket/other/", FILES, ARGUMENTS, 0), 0);
+    cache.put("f3", new ResultCache.Entry("t:1", "s3://bucket/out/", FILES, ARGUMENTS, 10), 10);
+
+    // the data of f1 was overwritten by f3
+    Assert.assertNull(cache.get("f1", "t:1", 20));
+    Assert.assertNotNull(cache.get("f2", "t:1", 20));
+    Assert.assertNotNull(cache.get("f3", "t:1", 20));
+  }
+
+  @Test
+  public void testConcurrentPuts() throws Exception {
+    final File folder = temporaryFolder.newFolder();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        final int id = i;
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws IOException {
+            // every unload of a batch has its own cache of the same location
+            ResultCache cache = new ResultCache(new FileStateStore(folder), folder.getPath(), 1000, 10);
+            for (int j = 0; j < 5; j++) {
+              cache.put("f" + id + "_" + j, new ResultCache.Entry(
+                "t:1", "s3://bucket/out" + id + "_" + j + "/", FILES, ARGUMENTS, j), j);
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    ResultCache cache = new ResultCache(new FileStateStore(folder), folder.getPath(), 1000, 100);
+    for (int i = 0; i < 8; i++) {
+      // the maximum of 10 entries keeps the most recent put of every unload
+      Assert.assertNotNull(cache.get("f" + i + "_4", "t:1", 0));
+    }
+  }
+
+  @Test
+  public void testIntact() {
+    ResultCache.Entry entry = new ResultCache.Entry("t:1", "s3://bucket/out/", FILES, ARGUMENTS, 0);
+    Assert.assertTrue(entry.isIntact(ImmutableMap.of("s3://bucket/out/0000_part_00", 100L,
+                                                     "s3://bucket/out/manifest", 10L)));
+    Assert.assertFalse(entry.isIntact(ImmutableMap.of("s3://bucket/out/0000_part_00", 80L)));
+    Assert.assertFalse(entry.isIntact(ImmutableMap.<String, Long>of()));
+  }
+
+  @Test
+  public void testReferencedTables() {
+    Assert.assertEquals(ImmutableSet.of("sales.orders", "customers"),
+                        TableState.getReferencedTables(
+                          "with recent as (select * from sales.orders where day > '2020-01-01') " +
+                            "select * from recent r JOIN \"Customers\" c on r.customer_id = c.id"));
+  }
+
+  @Test
+  public void testReferencedTablesOfCommaJoin() {
+    Assert.assertEquals(ImmutableSet.of("sales", "customers", "web.regions"),
+                        TableState.getReferencedTables(
+                          "select * from sales s, customers as c,web.\"Regions\" " +
+                            "where s.customer_id = c.id group by a, b order by a, b"));
+    Assert.assertEquals(ImmutableSet.of("sales", "returns"),
+                        TableState.getReferencedTables(
+                          "select * from sales, (select * from returns) r where sales.id = r.id"));
+  }
+
+  private ResultCache newCache(long ttlMillis, int maxEntries) throws IOException {
+    File folder = temporaryFolder.newFolder();
+    return new ResultCache(new FileStateStore(folder), folder.getPath(), ttlMillis, maxEntries);
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import io.cdap.cdap.api.data.schema.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Unit tests for {@link ResultSchema}
+ */
+public class ResultSchemaTest {
+
+  @Test
+  public void testToSchema() throws SQLException {
+    Schema schema = ResultSchema.toSchema(newMetadata(
+      new Column("id", Types.BIGINT, 19, 0, false),
+      new Column("name", Types.VARCHAR, 256, 0, true),
+      new Column("price", Types.NUMERIC, 12, 2, true),
+      new Column("sold_at", Types.TIMESTAMP, 29, 6, true),
+      new Column("active", Types.BIT, 1, 0, false)), false);
+
+    Assert.assertEquals(ResultSchema.RECORD_NAME, schema.getRecordName());
+    Assert.assertEquals(5, schema.getFields().size());
+    Assert.assertEquals(Schema.of(Schema.Type.LONG).toString(), schema.getField("id").getSchema().toString());
+    Assert.assertFalse(schema.getField("id").getSchema().isNullable());
+    Assert.assertEquals(Schema.Type.STRING, schema.getField("name").getSchema().getNonNullable().getType());
+    Schema price = schema.getField("price").getSchema().getNonNullable();
+    Assert.assertEquals(Schema.LogicalType.DECIMAL, price.getLogicalType());
+    Assert.assertEquals(12, price.getPrecision());
+    Assert.assertEquals(2, price.getScale());
+    Assert.assertEquals(Schema.LogicalType.TIMESTAMP_MICROS,
+                        schema.getField("sold_at").getSchema().getNonNullable().getLogicalType());
+    Assert.assertEquals(Schema.Type.BOOLEAN, schema.getField("active").getSchema().getType());
+  }
+
+  @Test
+  public void testFieldNames() throws SQLException {
+    Schema schema = ResultSchema.toSchema(newMetadata(
+      new Column("?column?", Types.INTEGER, 10, 0, true),
+      new Column("id", Types.INTEGER, 10, 0, true),
+      new Column("id", Types.INTEGER, 10, 0, true),
+      new Column("2nd", Types.NUMERIC, 0, 0, true)), false);
+
+    Assert.assertNotNull(schema.getField("_column_"));
+    Assert.assertNotNull(schema.getField("id"));
+    Assert.assertNotNull(schema.getField("id_1"));
+    Assert.assertEquals(Schema.Type.STRING, schema.getField("_2nd").getSchema().getNonNullable().getType());
+  }
+
+  @Test
+  public void testTextBooleans() throws SQLException {
+    Schema schema = ResultSchema.toSchema(newMetadata(
+      new Column("active", Types.BIT, 1, 0, false),
+      new Column("deleted", Types.BOOLEAN, 1, 0, true)), true);
+
+    Assert.assertEquals(Schema.Type.STRING, schema.getField("active").getSchema().getType());
+    Assert.assertEquals(Schema.Type.STRING, schema.getField("deleted").getSchema().getNonNullable().getType());
+  }
+
+  private static ResultSetMetaData newMetadata(final Column... columns) {
+    return (ResultSetMetaData) Proxy.newProxyInstance(
+      ResultSchemaTest.class.getClassLoader(), new Class<?>[] { ResultSetMetaData.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          if ("getColumnCount".equals(method.getName())) {
+            return columns.length;
+          }
+          Column column = columns[(Integer) args[0] - 1];
+          switch (method.getName()) {
+            case "getColumnLabel":
+              return column.name;
+            case "getColumnType":
+              return column.type;
+            case "getPrecision":
+              return column.precision;
+            case "getScale":
+              return column.scale;
+            case "isNullable":
+              return column.nullable ? ResultSetMetaData.columnNullable : ResultSetMetaData.columnNoNulls;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        }
+      });
+  }
+
+  private static final class Column {
+    private final String name;
+    private final int type;
+    private final int precision;
+    private final int scale;
+    private final boolean nullable;
+
+    Column(String name, int type, int precision, int scale, boolean nullable) {
+      this.name = name;
+      this.type = type;
+      this.precision = precision;
+      this.scale = scale;
+      this.nullable = nullable;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for {@link UnloadCheckpoint} and the retry decisions of {@link UnloadExecutor}.
+ */
+public class UnloadCheckpointTest {
+  private static final UnloadTask TASK0 = new UnloadTask("0", "q0", "s3://bucket/sales/part=0/", "unload 0");
+  private static final UnloadTask TASK1 = new UnloadTask("1", "q1", "s3://bucket/sales/part=1/", "unload 1");
+  private static final String PLAN = "select * from sales\ns3://bucket/sales/";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testResume() throws IOException {
+    StateStore store = new FileStateStore(temporaryFolder.newFolder());
+    List<UnloadTask> tasks = Arrays.asList(TASK0, TASK1);
+    UnloadCheckpoint checkpoint = UnloadCheckpoint.load(store, PLAN);
+    Assert.assertFalse(checkpoint.isResumed());
+    checkpoint.start(tasks, new UnloadTuning(true, 256, "GZIP"));
+    checkpoint.complete(new UnloadResult(TASK1, 42L, Collections.singletonList(
+      new UnloadedFile("s3://bucket/sales/part=1/0000_part_00", 10, 100)), 1000L, 2000L, 1.5));
+    Assert.assertFalse(store.get(UnloadCheckpoint.CHECKPOINT_KEY).contains("unload 1"));
+
+    UnloadCheckpoint resumed = UnloadCheckpoint.load(store, PLAN);
+    Assert.assertTrue(resumed.isResumed());
+    List<UnloadCheckpoint.Planned> planned = resumed.getTasks();
+    Assert.assertEquals(2, planned.size());
+    Assert.assertEquals("1", planned.get(1).getId());
+    Assert.assertEquals("q1", planned.get(1).getQuery());
+    Assert.assertEquals("s3://bucket/sales/part=1/", planned.get(1).getS3Path());
+    UnloadTuning tuning = resumed.getTuning();
+    Assert.assertNotNull(tuning);
+    Assert.assertEquals(Integer.valueOf(256), tuning.getMaxFileSizeMb());
+    Assert.assertEquals("GZIP", tuning.getCompression());
+    Assert.assertEquals(1, resumed.getCompletedCount());
+    Assert.assertNull(resumed.getResult(TASK0));
+    UnloadResult result = resumed.getResult(TASK1);
+    Assert.assertNotNull(result);
+    Assert.assertEquals(42L, result.getQueryId());
+    Assert.assertEquals(10L, result.getRowCount());
+    Assert.assertEquals("s3://bucket/sales/part=1/0000_part_00", result.getFiles().get(0).getPath());
+    Assert.assertEquals(2000L, result.getExecTimeMicros());
+
+    resumed.clear();
+    Assert.assertFalse(UnloadCheckpoint.load(store, PLAN).isResumed());
+  }
+
+  @Test
+  public void testResumeDelta() throws IOException {
+    StateStore store = new FileStateStore(temporaryFolder.newFolder());
+    UnloadCheckpoint checkpoint = UnloadCheckpoint.load(store, PLAN);
+    Assert.assertNull(checkpoint.getDeltaDirectory());
+    checkpoint.setDelta("2020-01-02 00:00:00", "delta=20200102T000000Z");
+    checkpoint.start(Arrays.asList(TASK0, TASK1), null);
+
+    UnloadCheckpoint resumed = UnloadCheckpoint.load(store, PLAN);
+    Assert.assertTrue(resumed.isResumed());
+    Assert.assertEquals("2020-01-02 00:00:00", resumed.getHighMark());
+    Assert.assertEquals("delta=20200102T000000Z", resumed.getDeltaDirectory());
+  }
+
+  @Test
+  public void testChangedPlanStartsOver() throws IOException {
+    StateStore store = new FileStateStore(temporaryFolder.newFolder());
+    UnloadCheckpoint checkpoint = UnloadCheckpoint.load(store, PLAN);
+    checkpoint.start(Arrays.asList(TASK0, TASK1), null);
+    checkpoint.complete(new UnloadResult(TASK0, 42L, Collections.<UnloadedFile>emptyList()));
+
+    UnloadCheckpoint other = UnloadCheckpoint.load(store, "select * from returns");
+    Assert.assertFalse(other.isResumed());
+    Assert.assertNull(other.getResult(TASK0));
+  }
+
+  @Test
+  public void testCompletedCheckpointStartsOver() throws IOException {
+    StateStore store = new FileStateStore(temporaryFolder.newFolder());
+    UnloadCheckpoint checkpoint = UnloadCheckpoint.load(store, PLAN);
+    checkpoint.start(Arrays.asList(TASK0, TASK1), null);
+    checkpoint.complete(new UnloadResult(TASK0, 42L, Collections.<UnloadedFile>emptyList()));
+    checkpoint.complete(new UnloadResult(TASK1, 43L, Collections.<UnloadedFile>emptyList()));
+
+    // the run succeeded but did not remove its checkpoint
+    Assert.assertFalse(UnloadCheckpoint.load(store, PLAN).isResumed());
+  }
+
+  @Test
+  public void testStoreFailuresAreNotFatal() {
+    StateStore store = new StateStore() {
+      @Override
+      public String get(String key) throws IOException {
+        throw new IOException("Access Denied");
+      }
+
+      @Override
+      public void put(String key, String value) throws IOException {
+        throw new IOException("Access Denied");
+      }
+
+      @Override
+      public void delete(String key) throws IOException {
+        throw new IOException("Access Denied");
+      }
+    };
+    UnloadCheckpoint checkpoint = UnloadCheckpoint.load(store, PLAN);
+    Assert.assertFalse(checkpoint.isResumed());
+    checkpoint.start(Arrays.asList(TASK0, TASK1), null);
+    checkpoint.complete(new UnloadResult(TASK0, 42L, Collections.<UnloadedFile>emptyList()));
+    checkpoint.reset(TASK0);
+    checkpoint.clear();
+  }
+
+  @Test
+  public void testUnreadableCheckpointStartsOver() throws IOException {
+    StateStore store = new FileStateStore(temporaryFolder.newFolder());
+    store.put(UnloadCheckpoint.CHECKPOINT_KEY, "{not json");
+    Assert.assertFalse(UnloadCheckpoint.load(store, PLAN).isResumed());
+  }
+
+  @Test
+  public void testTransientErrors() {
+    Assert.assertTrue(UnloadExecutor.isTransient(new SQLException("connection reset", "08006")));
+    Assert.assertTrue(UnloadExecutor.isTransient(new SQLException("out of memory", "53200")));
+    Assert.assertTrue(UnloadExecutor.isTransient(new SQLException("serialization failure", "40001")));
+    Assert.assertTrue(UnloadExecutor.isTransient(
+      new SQLException("S3ServiceException:Please reduce your request rate.,Status 503", "XX000")));
+    Assert.assertTrue(UnloadExecutor.isTransient(
+      new SQLException("Unload of partition '0' failed.", "XX000", new SQLException("terminating", "57P01"))));
+    Assert.assertFalse(UnloadExecutor.isTransient(new SQLException("syntax error", "42601")));
+    Assert.assertFalse(UnloadExecutor.isTransient(new SQLException("canceled", "57014")));
+    Assert.assertFalse(UnloadExecutor.isTransient(new SQLException("no state")));
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Unit tests for {@link UnloadCompactor}
+ */
+public class UnloadCompactorTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testPlan() {
+    List<UnloadedFile> files = Arrays.asList(new UnloadedFile("s3://bucket/sales/0000_part_00", 10, 40),
+                                             new UnloadedFile("s3://bucket/sales/0001_part_00", 10, 40),
+                                             new UnloadedFile("s3://bucket/sales/0002_part_00", 10, 40),
+                                             new UnloadedFile("s3://bucket/sales/0003_part_00", 10, 150),
+                                             new UnloadedFile("s3://bucket/sales/0004_part_00", 10, 30),
+                                             new UnloadedFile("s3://bucket/sales/0005_part_00", 10, 30),
+                                             new UnloadedFile("s3://bucket/sales/0006_part_00", 10, 90));
+    List<UnloadCompactor.Bin> bins = UnloadCompactor.plan(files, 100);
+    Assert.assertEquals(2, bins.size());
+    Assert.assertEquals("s3://bucket/sales/compacted_0000", bins.get(0).getPath());
+    Assert.assertEquals(files.subList(0, 2), bins.get(0).getFiles());
+    Assert.assertEquals("s3://bucket/sales/compacted_0001", bins.get(1).getPath());
+    Assert.assertEquals(Arrays.asList(files.get(2), files.get(4), files.get(5)), bins.get(1).getFiles());
+  }
+
+  @Test
+  public void testPlanKeepsDirectoriesApart() {
+    List<UnloadedFile> files = Arrays.asList(new UnloadedFile("s3://bucket/sales/year=2019/0000_part_00.gz", 1, 10),
+                                             new UnloadedFile("s3://bucket/sales/year=2020/0000_part_00.gz", 1, 10),
+                                             new UnloadedFile("s3://bucket/sales/year=2020/0001_part_00.gz", 1, 10),
+                                             new UnloadedFile("s3://bucket/sales_0000_part_00", 1, 10),
+                                             new UnloadedFile("s3://bucket/sales_0001_part_00", 1, 10));
+    List<UnloadCompactor.Bin> bins = UnloadCompactor.plan(files, 100);
+    Assert.assertEquals(2, bins.size());
+    Assert.assertEquals("s3://bucket/sales/year=2020/compacted_0000.gz", bins.get(0).getPath());
+    Assert.assertEquals("s3://bucket/sales_compacted_0000", bins.get(1).getPath());
+  }
+
+  @Test
+  public void testCompactGzip() throws IOException, InterruptedException {
+    LocalObjectStore store = new LocalObjectStore(temporaryFolder.newFolder());
+    List<UnloadedFile> files = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      files.add(writeGzip(store, "s3://bucket/sales/000" + i + "_part_00.gz", "row" + i + "\n", 1));
+    }
+    // left over from an earlier run that compacted into more files
+    writeGzip(store, "s3://bucket/sales/compacted_0001.gz", "stale\n", 1);
+    UnloadTask task = new UnloadTask("0", "select * from sales", "s3://bucket/sales/", "");
+    UnloadResult result = new UnloadResult(task, 42L, files, 10L, 20L, 1.5);
+
+    List<UnloadResult> compacted = new UnloadCompactor(store, 1024 * 1024, 2)
+      .compact(Collections.singletonList(result));
+
+    Assert.assertEquals(1, compacted.size());
+    List<UnloadedFile> compactedFiles = compacted.get(0).getFiles();
+    Assert.assertEquals(1, compactedFiles.size());
+    Assert.assertEquals("s3://bucket/sales/compacted_0000.gz", compactedFiles.get(0).getPath());
+    Assert.assertEquals(3L, compactedFiles.get(0).getRowCount());
+    Assert.assertEquals(store.getFile("s3://bucket/sales/compacted_0000.gz").length(),
+                        compactedFiles.get(0).getSize());
+    Assert.assertEquals(42L, compacted.get(0).getQueryId());
+    Assert.assertEquals(Collections.singleton("s3://bucket/sales/compacted_0000.gz"),
+                        store.list("s3://bucket/sales/").keySet());
+
+    InputStream is = new GZIPInputStream(store.open("s3://bucket/sales/compacted_0000.gz"));
+    try {
+      Assert.assertEquals("row0\nrow1\nrow2\n", new String(ByteStreams.toByteArray(is), StandardCharsets.UTF_8));
+    } finally {
+      is.close();
+    }
+  }
+
+  private static UnloadedFile writeGzip(ObjectStore store, String path, String content,
+                                        long rowCount) throws IOException {
+    OutputStream os = new GZIPOutputStream(store.create(path));
+    try {
+      os.write(content.getBytes(StandardCharsets.UTF_8));
+    } finally {
+      os.close();
+    }
+    return new UnloadedFile(path, rowCount, store.list(path).get(path));
+  }
+}
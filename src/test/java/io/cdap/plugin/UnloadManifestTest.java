@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.io.Files;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Unit tests for {@link UnloadManifest}
+ */
+public class UnloadManifestTest {
+  private static final String VERBOSE_MANIFEST = "{\"entries\": [\n" +
+    "  {\"url\":\"s3://bucket/sales/0000_part_00\", \"meta\": { \"content_length\": 32295, \"record_count\": 10 }},\n" +
+    "  {\"url\":\"s3://bucket/sales/0001_part_00\", \"meta\": { \"content_length\": 32771, \"record_count\": 12 }}\n" +
+    "],\n" +
+    "\"schema\": {\"elements\": [{\"name\": \"id\", \"type\": {\"base\": \"integer\"}}]},\n" +
+    "\"meta\": {\"content_length\": 65066, \"record_count\": 22},\n" +
+    "\"author\": {\"name\": \"Amazon Redshift\", \"version\": \"1.0.0\"}\n" +
+    "}";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testReadFromObjectStore() throws IOException {
+    LocalObjectStore store = new LocalObjectStore(temporaryFolder.newFolder());
+    String manifestPath = UnloadManifest.getManifestPath("s3://bucket/sales/");
+    Assert.assertEquals("s3://bucket/sales/manifest", manifestPath);
+    File manifestFile = store.getFile(manifestPath);
+    Files.createParentDirs(manifestFile);
+    Files.write(VERBOSE_MANIFEST, manifestFile, StandardCharsets.UTF_8);
+
+    List<UnloadedFile> files = UnloadManifest.read(store, manifestPath);
+    Assert.assertEquals(2, files.size());
+    Assert.assertEquals("s3://bucket/sales/0000_part_00", files.get(0).getPath());
+    Assert.assertEquals(32295L, files.get(0).getSize());
+    Assert.assertEquals(10L, files.get(0).getRowCount());
+    Assert.assertEquals("s3://bucket/sales/0001_part_00", files.get(1).getPath());
+    Assert.assertEquals(32771L, files.get(1).getSize());
+    Assert.assertEquals(12L, files.get(1).getRowCount());
+  }
+
+  @Test
+  public void testManifestWithoutMeta() {
+    List<UnloadedFile> files = UnloadManifest.parse(
+      new StringReader("{\"entries\": [{\"url\":\"s3://bucket/sales/0000_part_00\"}]}"));
+    Assert.assertEquals(1, files.size());
+    Assert.assertEquals(-1L, files.get(0).getSize());
+  }
+
+  @Test(expected = IOException.class)
+  public void testInvalidManifest() throws IOException {
+    LocalObjectStore store = new LocalObjectStore(temporaryFolder.newFolder());
+    File manifestFile = store.getFile("s3://bucket/sales/manifest");
+    Files.createParentDirs(manifestFile);
+    Files.write("{\"files\": []}", manifestFile, StandardCharsets.UTF_8);
+    UnloadManifest.read(store, "s3://bucket/sales/manifest");
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for {@link UnloadResult} and {@link UnloadStatistics}
+ */
+public class UnloadResultTest {
+
+  @Test
+  public void testPartitions() {
+    UnloadTask task = new UnloadTask("0", "select * from sales", "s3://bucket/sales/", "unload");
+    UnloadResult result = new UnloadResult(task, 42L, Arrays.asList(
+      new UnloadedFile("s3://bucket/sales/dt=2020-01-01/region=us/0000_part_00", 10, 100),
+      new UnloadedFile("s3://bucket/sales/dt=2020-01-01/region=us/0001_part_00", 10, 100),
+      new UnloadedFile("s3://bucket/sales/dt=2020-01-02/region=eu/0000_part_00", 10, 100)));
+    Assert.assertEquals(ImmutableSet.of("dt=2020-01-01/region=us", "dt=2020-01-02/region=eu"),
+                        result.getPartitions());
+  }
+
+  @Test
+  public void testNoPartitions() {
+    UnloadTask task = new UnloadTask("0", "select * from sales", "s3://bucket/sales/", "unload");
+    UnloadResult result = new UnloadResult(task, 42L, Arrays.asList(
+      new UnloadedFile("s3://bucket/sales/0000_part_00", 10, 100)));
+    Assert.assertTrue(result.getPartitions().isEmpty());
+  }
+
+  @Test
+  public void testSliceSkew() {
+    Assert.assertEquals(2.0, UnloadResult.getSliceSkew(400, 200), 0.001);
+    Assert.assertEquals(1.0, UnloadResult.getSliceSkew(0, 0), 0.001);
+  }
+
+  @Test
+  public void testStatistics() {
+    UnloadTask task0 = new UnloadTask("0", "select * from sales", "s3://bucket/sales/part=0/", "unload");
+    UnloadTask task1 = new UnloadTask("1", "select * from sales", "s3://bucket/sales/part=1/", "unload");
+    UnloadStatistics statistics = UnloadStatistics.of(Arrays.asList(
+      new UnloadResult(task0, 42L, Arrays.asList(new UnloadedFile("s3://bucket/sales/part=0/0000_part_00", 10, 100),
+                                                 new UnloadedFile("s3://bucket/sales/part=0/0001_part_00", 5, 50)),
+                       2000L, 300000L, 1.5),
+      new UnloadResult(task1, 43L, Arrays.asList(new UnloadedFile("s3://bucket/sales/part=1/0000_part_00", 7, 70)),
+                       1000L, 200000L, 3.0)));
+    Assert.assertEquals(22L, statistics.getRowCount());
+    Assert.assertEquals(220L, statistics.getSize());
+    Assert.assertEquals(3, statistics.getFileCount());
+    Assert.assertEquals(3L, statistics.getQueueTimeMillis());
+    Assert.assertEquals(500L, statistics.getExecTimeMillis());
+    Assert.assertEquals(3.0, statistics.getSliceSkew(), 0.001);
+  }
+}
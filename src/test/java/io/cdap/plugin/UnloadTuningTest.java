@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link UnloadTuning}
+ */
+public class UnloadTuningTest {
+  private static final long MB = 1024L * 1024L;
+
+  @Test
+  public void testSmallResult() {
+    UnloadTuning tuning = UnloadTuning.choose(100 * MB, 8, 128, true);
+    Assert.assertFalse(tuning.isParallel());
+    Assert.assertNull(tuning.getMaxFileSizeMb());
+    Assert.assertEquals(UnloadTuning.COMPRESSION_NONE, tuning.getCompression());
+  }
+
+  @Test
+  public void testResultSmallerThanSlices() {
+    UnloadTuning tuning = UnloadTuning.choose(200 * MB, 256, 5, true);
+    Assert.assertFalse(tuning.isParallel());
+    Assert.assertNull(tuning.getMaxFileSizeMb());
+  }
+
+  @Test
+  public void testLargeResult() {
+    UnloadTuning tuning = UnloadTuning.choose(10240 * MB, 8, 128, true);
+    Assert.assertTrue(tuning.isParallel());
+    Assert.assertEquals(Integer.valueOf(128), tuning.getMaxFileSizeMb());
+    Assert.assertEquals(UnloadTuning.COMPRESSION_BZIP2, tuning.getCompression());
+
+    tuning = UnloadTuning.choose(10240 * MB, 8, 128, false);
+    Assert.assertEquals(UnloadTuning.COMPRESSION_NONE, tuning.getCompression());
+  }
+
+  @Test
+  public void testUnknownEstimate() {
+    UnloadTuning tuning = UnloadTuning.choose(null, 8, 256, true);
+    Assert.assertTrue(tuning.isParallel());
+    Assert.assertEquals(Integer.valueOf(256), tuning.getMaxFileSizeMb());
+    Assert.assertEquals(UnloadTuning.COMPRESSION_BZIP2, tuning.getCompression());
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Unit tests for {@link UnloadVerifier}
+ */
+public class UnloadVerifierTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testCompareSizes() {
+    Map<String, Long> objects = ImmutableMap.of("s3://bucket/sales/0000_part_00", 100L,
+                                                "s3://bucket/sales/0001_part_00", 60L);
+    List<UnloadedFile> files = Arrays.asList(new UnloadedFile("s3://bucket/sales/0000_part_00", 2L, 100L),
+                                             new UnloadedFile("s3://bucket/sales/0001_part_00", 2L, 100L),
+                                             new UnloadedFile("s3://bucket/sales/0002_part_00", 2L, 100L));
+    List<String> problems = UnloadVerifier.compareSizes(files, objects, "STL_UNLOAD_LOG");
+    Assert.assertEquals(Arrays.asList(
+      "File 's3://bucket/sales/0001_part_00' has 60 bytes, STL_UNLOAD_LOG recorded 100.",
+      "File 's3://bucket/sales/0002_part_00' recorded in STL_UNLOAD_LOG does not exist."), problems);
+  }
+
+  @Test
+  public void testCountIsCancelledOnTimeout() throws Exception {
+    LocalObjectStore store = new LocalObjectStore(temporaryFolder.newFolder());
+    LocalRedshift redshift = new LocalRedshift(store).setCountLatencyMillis(60000);
+    Properties properties = new Properties();
+    properties.setProperty("user", "user");
+    properties.setProperty("password", "secret");
+    ConnectionPool pool = new ConnectionPool(redshift.getUrl(), properties, 1);
+    try {
+      UnloadVerifier verifier = new UnloadVerifier(pool, new WlmThrottle(1), store, 1, 200, false);
+      UnloadTask task = new UnloadTask("0", "select * from sales", "s3://bucket/sales/", "unload");
+      long start = System.currentTimeMillis();
+      try {
+        verifier.verify(Collections.singletonList(
+          new UnloadResult(task, 42L, Collections.<UnloadedFile>emptyList())));
+        Assert.fail("Expected counting the rows to time out");
+      } catch (SQLException e) {
+        Assert.assertTrue(e.getMessage(), e.getMessage().contains("Statement timeout"));
+      }
+      Assert.assertTrue(System.currentTimeMillis() - start < 30000);
+    } finally {
+      pool.close();
+      redshift.close();
+    }
+  }
+
+  @Test
+  public void testCompareUnknownSizes() {
+    Map<String, Long> objects = ImmutableMap.of("s3://bucket/sales/0000_part_00", 100L);
+    List<UnloadedFile> files = Arrays.asList(new UnloadedFile("s3://bucket/sales/0000_part_00", -1L, -1L));
+    Assert.assertTrue(UnloadVerifier.compareSizes(files, objects, "the manifest").isEmpty());
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link UnloadWatchdog}
+ */
+public class UnloadWatchdogTest {
+  private static final UnloadTask TASK = new UnloadTask("0", "select * from sales", "s3://bucket/sales/", "unload");
+
+  @Test
+  public void testTimeout() throws Exception {
+    CountDownLatch cancelled = new CountDownLatch(1);
+    UnloadWatchdog watchdog = new UnloadWatchdog(null, 50, TimeUnit.HOURS.toMillis(1));
+    try {
+      watchdog.start(TASK, newStatement(cancelled), 1);
+      Assert.assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+      Assert.assertTrue(watchdog.isTimedOut(TASK));
+    } finally {
+      watchdog.close();
+    }
+  }
+
+  @Test
+  public void testCancelAll() throws Exception {
+    CountDownLatch cancelled = new CountDownLatch(1);
+    UnloadWatchdog watchdog = new UnloadWatchdog(null, 0, TimeUnit.HOURS.toMillis(1));
+    try {
+      watchdog.start(TASK, newStatement(cancelled), 1);
+      watchdog.cancelAll();
+      Assert.assertEquals(0, cancelled.getCount());
+      Assert.assertFalse(watchdog.isTimedOut(TASK));
+    } finally {
+      watchdog.close();
+    }
+  }
+
+  @Test
+  public void testStoppedTaskIsNotCancelled() throws Exception {
+    CountDownLatch cancelled = new CountDownLatch(1);
+    UnloadWatchdog watchdog = new UnloadWatchdog(null, 50, TimeUnit.HOURS.toMillis(1));
+    try {
+      watchdog.start(TASK, newStatement(cancelled), 1);
+      watchdog.stop(TASK);
+      watchdog.cancelAll();
+      Assert.assertFalse(cancelled.await(200, TimeUnit.MILLISECONDS));
+      Assert.assertFalse(watchdog.isTimedOut(TASK));
+    } finally {
+      watchdog.close();
+    }
+  }
+
+  private static Statement newStatement(final CountDownLatch cancelled) {
+    return (Statement) Proxy.newProxyInstance(
+      UnloadWatchdogTest.class.getClassLoader(), new Class<?>[] { Statement.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          if ("cancel".equals(method.getName())) {
+            cancelled.countDown();
+          }
+          return null;
+        }
+      });
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2026 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.plugin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link WlmThrottle}
+ */
+public class WlmThrottleTest {
+
+  @Test
+  public void testLimitWithoutQueue() {
+    WlmThrottle throttle = new WlmThrottle(2);
+    Assert.assertTrue(throttle.tryAcquire(0));
+    Assert.assertTrue(throttle.tryAcquire(0));
+    Assert.assertFalse(throttle.tryAcquire(0));
+    throttle.release();
+    Assert.assertTrue(throttle.tryAcquire(0));
+  }
+
+  @Test
+  public void testBackoffWhileQueued() {
+    WlmThrottle throttle = new WlmThrottle(8);
+    Assert.assertTrue(throttle.tryAcquire(3));
+    Assert.assertEquals(4, throttle.getLimit());
+    Assert.assertTrue(throttle.tryAcquire(3));
+    Assert.assertEquals(2, throttle.getLimit());
+    Assert.assertFalse(throttle.tryAcquire(3));
+    Assert.assertEquals(1, throttle.getLimit());
+
+    // the limit recovers by one for every check that sees an empty queue
+    throttle.release();
+    throttle.release();
+    Assert.assertTrue(throttle.tryAcquire(0));
+    Assert.assertEquals(2, throttle.getLimit());
+    Assert.assertTrue(throttle.tryAcquire(0));
+    Assert.assertEquals(3, throttle.getLimit());
+  }
+
+  @Test
+  public void testProgressOnBusyCluster() {
+    WlmThrottle throttle = new WlmThrottle(4);
+    for (int i = 0; i < 10; i++) {
+      Assert.assertTrue(throttle.tryAcquire(100));
+      throttle.release();
+    }
+    Assert.assertEquals(1, throttle.getLimit());
+  }
+}